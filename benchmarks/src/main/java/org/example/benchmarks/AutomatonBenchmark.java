@@ -0,0 +1,78 @@
+package org.example.benchmarks;
+
+import org.example.Automaton;
+import org.example.Automaton.EdgeMode;
+import org.example.Automaton.Rule;
+import org.example.IntGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generations per second of Conway's Game of Life on a square board a third full, on the common pool and on a single
+ * thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AutomatonBenchmark {
+
+    @Param({"256", "1024", "4096"})
+    private int size;
+
+    @Param({"WRAP", "DEAD"})
+    private EdgeMode edgeMode;
+
+    @Param({"true", "false"})
+    private boolean parallel;
+
+    private ForkJoinPool singleThread;
+    private Automaton automaton;
+
+
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        final IntGrid board = IntGrid.of(size, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                board.setInt(x, y, random.nextInt(3) == 0 ? 1 : 0);
+            }
+        }
+
+        singleThread = new ForkJoinPool(1);
+        final ForkJoinPool pool = parallel ? ForkJoinPool.commonPool() : singleThread;
+        automaton = new Automaton(board, Rule.lifeLike("B3/S23"), edgeMode, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThread.shutdown();
+    }
+
+
+
+    @Benchmark
+    public long step() {
+        automaton.step();
+        return automaton.generation();
+    }
+
+}
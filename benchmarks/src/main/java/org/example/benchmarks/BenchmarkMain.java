@@ -0,0 +1,36 @@
+package org.example.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Same as JMH's own main except the gc profiler is always attached, so allocation rates (gc.alloc.rate.norm) are
+ * reported next to throughput without having to remember {@code -prof gc}.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+
+        final Runner listingRunner = new Runner(commandLine);
+        if (commandLine.shouldList()) {
+            listingRunner.list();
+            return;
+        }
+
+        final Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.example.benchmarks;
+
+import org.example.CellLayout;
+import org.example.CellLayout.Constraints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.JPanel;
+import java.awt.Dimension;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of laying out and sizing a container full of cell components, shaped like {@code Main.tilePanel} with a few
+ * ratio sized components mixed in. Runs headless, nothing is shown on screen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CellLayoutBenchmark {
+
+    @Param({"100", "2000", "20000"})
+    private int components;
+
+    private JPanel container;
+    private CellLayout layout;
+
+
+
+    @Setup
+    public void setup() {
+        layout = new CellLayout(10, 20);
+        container = new JPanel(layout);
+        container.setSize(1600, 1000);
+
+        final int columns = 80;
+        for (int i = 0; i < components; i++) {
+            final Constraints constraints = (i % 50 == 0)
+                    ? new Constraints("ratio" + i, 0.1f, 0.1f, 0.5f, 0.5f)
+                    : new Constraints(i % columns, i / columns, 1, 1);
+            container.add(new JPanel(), constraints);
+        }
+    }
+
+
+
+    @Benchmark
+    public JPanel layoutContainer() {
+        layout.layoutContainer(container);
+        return container;
+    }
+
+    @Benchmark
+    public Dimension preferredLayoutSize() {
+        return layout.preferredLayoutSize(container);
+    }
+
+    @Benchmark
+    public JPanel resizeAndLayout() {
+        // Alternate sizes so the ratio sized components really do move every pass.
+        container.setSize(container.getWidth() == 1600 ? 1200 : 1600, 1000);
+        layout.layoutContainer(container);
+        return container;
+    }
+
+}
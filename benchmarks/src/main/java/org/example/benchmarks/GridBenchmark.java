@@ -0,0 +1,125 @@
+package org.example.benchmarks;
+
+import org.example.Grid;
+import org.example.Grid.Locatable;
+import org.example.Grid.Sequence;
+import org.example.Grid.V2;
+import org.example.benchmarks.Grids.ElementType;
+import org.example.benchmarks.Grids.Fixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traversal and stream costs over whole grids. Throughput is in operations per second where one operation visits the
+ * whole grid (or every ray for {@link #streamAll}), so compare like with like across sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridBenchmark {
+
+    @Param({"64", "1024"})
+    private int size;
+
+    @Param({"LIST_REGULAR", "LIST_JAGGED", "LIST_SPARSE", "ARRAY_REGULAR"})
+    private Fixture fixture;
+
+    @Param({"INTEGER", "STRING"})
+    private ElementType type;
+
+    private Grid<Object> grid;
+    private V2 origin;
+
+
+
+    @Setup
+    public void setup() {
+        grid = fixture.grid(size, type);
+        origin = new V2(0, 0);
+    }
+
+
+
+    @Benchmark
+    public void iterator(Blackhole blackhole) {
+        final Sequence<Object> sequence = grid.iterator();
+        while (sequence.hasNext()) {
+            blackhole.consume(sequence.next());
+        }
+    }
+
+    @Benchmark
+    public void iteratorEast(Blackhole blackhole) {
+        final Sequence<Object> sequence = grid.iterator(origin, Grid.EAST);
+        while (sequence.hasNext()) {
+            blackhole.consume(sequence.next());
+        }
+    }
+
+    @Benchmark
+    public void iteratorSouthEast(Blackhole blackhole) {
+        final Sequence<Object> sequence = grid.iterator(origin, Grid.SOUTH_EAST);
+        while (sequence.hasNext()) {
+            blackhole.consume(sequence.next());
+        }
+    }
+
+    @Benchmark
+    public void locatableIterator(Blackhole blackhole) {
+        final Sequence<Locatable<Object>> sequence = grid.locatableIterator();
+        while (sequence.hasNext()) {
+            blackhole.consume(sequence.next());
+        }
+    }
+
+    @Benchmark
+    public long locatableStream() {
+        return grid.locatableStream()
+                .mapToInt(locatable -> locatable.location().x())
+                .sum();
+    }
+
+    @Benchmark
+    public long streamAll() {
+        return grid.streamAll(Grid.SOUTH_EAST)
+                .mapToLong(ray -> ray.count())
+                .sum();
+    }
+
+    @Benchmark
+    public long parallelStreamAll() {
+        return grid.parallelStreamAll(Grid.SOUTH_EAST)
+                .mapToLong(ray -> ray.count())
+                .sum();
+    }
+
+    @Benchmark
+    public long maximalStreamAll() {
+        return grid.maximalStreamAll(Grid.SOUTH_EAST)
+                .mapToLong(ray -> ray.count())
+                .sum();
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return grid.parallelStream()
+                .filter(value -> value != null)
+                .count();
+    }
+
+}
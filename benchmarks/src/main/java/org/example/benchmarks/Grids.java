@@ -0,0 +1,105 @@
+package org.example.benchmarks;
+
+import org.example.ArrayGrid;
+import org.example.Grid;
+import org.example.ListGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Grid fixtures shared by the benchmarks.
+ */
+public final class Grids {
+
+    public enum Shape {
+        /** Every row is {@code size} long. */
+        REGULAR,
+        /** Row lengths vary between 1 and {@code size}, roughly half the cells of a regular grid. */
+        JAGGED,
+        /** Only one row in eight has any cells, the rest are empty. */
+        SPARSE
+    }
+
+    public enum ElementType {
+        INTEGER(i -> i),
+        STRING(Integer::toString);
+
+        private final IntFunction<Object> factory;
+
+        ElementType(IntFunction<Object> factory) {
+            this.factory = factory;
+        }
+    }
+
+    public enum Implementation {
+        LIST,
+        /** Only holds {@link Shape#REGULAR} grids, it would pad the other shapes out to a full rectangle of nulls. */
+        ARRAY
+    }
+
+    /**
+     * The implementation and shape pairs worth comparing. {@link Implementation#ARRAY} only comes regular, so every
+     * fixture visits the same cells as the {@link Implementation#LIST} one of the same shape.
+     */
+    public enum Fixture {
+        LIST_REGULAR(Implementation.LIST, Shape.REGULAR),
+        LIST_JAGGED(Implementation.LIST, Shape.JAGGED),
+        LIST_SPARSE(Implementation.LIST, Shape.SPARSE),
+        ARRAY_REGULAR(Implementation.ARRAY, Shape.REGULAR);
+
+        private final Implementation implementation;
+        private final Shape shape;
+
+        Fixture(Implementation implementation, Shape shape) {
+            this.implementation = implementation;
+            this.shape = shape;
+        }
+
+        public Grid<Object> grid(int size, ElementType type) {
+            return Grids.grid(implementation, size, shape, type);
+        }
+    }
+
+
+
+    private Grids() { }
+
+
+
+    public static List<List<Object>> rows(int size, Shape shape, ElementType type) {
+        final List<List<Object>> rows = new ArrayList<>(size);
+        int counter = 0;
+        for (int y = 0; y < size; y++) {
+            final int length = switch (shape) {
+                case REGULAR -> size;
+                // Deterministic but scattered, so there is no pattern for the branch predictor to learn.
+                case JAGGED -> 1 + (int) ((y * 7919L) % size);
+                case SPARSE -> (y % 8 == 0) ? size : 0;
+            };
+
+            final List<Object> row = new ArrayList<>(length);
+            for (int x = 0; x < length; x++) {
+                row.add(type.factory.apply(counter++));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    public static Grid<Object> grid(Implementation implementation, int size, Shape shape, ElementType type) {
+        if (implementation == Implementation.ARRAY && shape != Shape.REGULAR) {
+            throw new IllegalArgumentException(String.format(
+                    "Array grids would pad the rows with nulls. [Shape=%s]", shape
+            ));
+        }
+
+        final List<List<Object>> rows = rows(size, shape, type);
+        return switch (implementation) {
+            case LIST -> ListGrid.immutable(rows);
+            case ARRAY -> ArrayGrid.copyOf(rows);
+        };
+    }
+
+}
@@ -0,0 +1,507 @@
+package org.example;
+
+import org.example.RaySpliterator.StepReader;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+
+/**
+ * Base for dense, regular grids stored row-major in a single flat array. {@code A} is the backing array type, e.g.
+ * {@code int[]}, which lets subclasses expose primitive accessors that never box.
+ */
+public abstract class AbstractArrayGrid<T, A> extends AbstractGrid<T> implements MutableGrid<T> {
+
+    private static final int STENCIL_OFFSETS_CACHED = 4;
+
+    protected final int width;
+    protected final int height;
+    protected final A data;
+
+    /**
+     * {@link Stencil#indexOffsets(int)} for the last few stencils used on this grid, the width never changes so the
+     * stencil alone is the key. Racy, but each entry is immutable so a lost write only costs a recompute.
+     */
+    private final StencilOffsets[] stencilOffsets = new StencilOffsets[STENCIL_OFFSETS_CACHED];
+    private int nextStencilOffsets;
+
+
+
+    protected AbstractArrayGrid(int width, int height, A data, int dataLength) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Negative grid size. [Width=%d, Height=%d]", width, height
+            ));
+        }
+        if ((long) width * height != dataLength) {
+            throw new IllegalArgumentException(String.format(
+                    "Backing array doesn't match the grid size. [Width=%d, Height=%d, Length=%d]",
+                    width, height, dataLength
+            ));
+        }
+        this.width = width;
+        this.height = height;
+        this.data = data;
+    }
+
+
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public T get(int x, int y) {
+        return getAt(checkedIndex(x, y));
+    }
+
+    @Override
+    public void set(int x, int y, T value) {
+        setAt(checkedIndex(x, y), value);
+    }
+
+    @Override
+    public boolean exists(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    @Override
+    public int size() {
+        return width * height;
+    }
+
+    @Override
+    public Rect bounds() {
+        return new Rect(0, 0, width, height);
+    }
+
+    @Override
+    public Region<T, A> region(int x, int y, int width, int height) {
+        return new Region<>(this, x, y, width, height);
+    }
+
+    @Override
+    public Region<T, A> row(int y) {
+        return region(0, y, width, 1);
+    }
+
+    @Override
+    public Region<T, A> column(int x) {
+        return region(x, 0, 1, height);
+    }
+
+    /**
+     * Cells whose whole neighbourhood is inside the grid are read straight from the array with no bounds checks.
+     */
+    @Override
+    public void forEachNeighbour(int x, int y, Stencil stencil, CellVisitor<? super T> visitor) {
+        if (!isInterior(x, y, stencil)) {
+            super.forEachNeighbour(x, y, stencil, visitor);
+            return;
+        }
+
+        final int centre = index(x, y);
+        final int[] offsets = indexOffsets(stencil);
+        for (int i = 0; i < offsets.length; i++) {
+            visitor.visit(x + stencil.dx(i), y + stencil.dy(i), getAt(centre + offsets[i]));
+        }
+    }
+
+    @Override
+    public int rayLength(int x, int y, int xIncrement, int yIncrement) {
+        return Math.min(stepsWithin(x, xIncrement, 0, width), stepsWithin(y, yIncrement, 0, height));
+    }
+
+    @Override
+    public ArraySequence iterator() {
+        return new ArraySequence();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return RowMajorSpliterator.regular(width, height, (x, y) -> getAt(index(x, y)), characteristics());
+    }
+
+    @Override
+    public Spliterator<Locatable<T>> locatableSpliterator() {
+        return RowMajorSpliterator.regular(
+                width, height,
+                (x, y) -> new LocationPair<>(getAt(index(x, y)), new V2(x, y)),
+                characteristics()
+        );
+    }
+
+
+
+    /**
+     * A strided walk through the array, one index step per cell.
+     */
+    @Override
+    protected StepReader<T> rayReader(V2 start, LinearPattern ray) {
+        final int first = index(start.x(), start.y());
+        final int stride = (ray.yIncrement() * width) + ray.xIncrement();
+        return step -> getAt(first + step * stride);
+    }
+
+    protected abstract T getAt(int index);
+
+    protected abstract void setAt(int index, T value);
+
+    /**
+     * Sets every index in [from, to) to {@code value}, unboxing it once.
+     */
+    protected abstract void fill(int from, int to, T value);
+
+    /**
+     * Extra {@link Spliterator} characteristics on top of the ordered, sized ones every array grid has.
+     */
+    protected int characteristics() {
+        return 0;
+    }
+
+    /**
+     * Whether every offset of {@code stencil} from (x, y) lands inside the grid.
+     */
+    protected final boolean isInterior(int x, int y, Stencil stencil) {
+        final int radius = stencil.radius();
+        return x >= radius && y >= radius && x < width - radius && y < height - radius;
+    }
+
+    /**
+     * Index in the backing array of the cell at {@code stencil}'s offset {@code i} from (x, y), or -1 if that cell is
+     * off the grid. For cells off the {@link #isInterior} fast path.
+     */
+    protected final int neighbourIndex(int x, int y, Stencil stencil, int i) {
+        final int neighbourX = x + stencil.dx(i);
+        final int neighbourY = y + stencil.dy(i);
+        return exists(neighbourX, neighbourY) ? index(neighbourX, neighbourY) : -1;
+    }
+
+    /**
+     * {@code stencil}'s offsets as steps through the backing array, cached per grid so neighbour queries don't
+     * allocate. The returned array is shared and must not be changed.
+     */
+    protected final int[] indexOffsets(Stencil stencil) {
+        for (StencilOffsets cached : stencilOffsets) {
+            if (cached != null && cached.stencil() == stencil) return cached.offsets();
+        }
+
+        final int[] offsets = stencil.indexOffsets(width);
+        final int slot = nextStencilOffsets;
+        nextStencilOffsets = (slot + 1) % STENCIL_OFFSETS_CACHED;
+        stencilOffsets[slot] = new StencilOffsets(stencil, offsets);
+        return offsets;
+    }
+
+    protected final int index(int x, int y) {
+        return (y * width) + x;
+    }
+
+    /**
+     * The flat array will happily accept an x past the end of a row, so the bounds have to be checked against the
+     * grid and not left to the array.
+     */
+    protected final int checkedIndex(int x, int y) {
+        if (!exists(x, y)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the grid. [X=%d, Y=%d, Width=%d, Height=%d]", x, y, width, height
+            ));
+        }
+        return index(x, y);
+    }
+
+    protected static int checkedLength(int width, int height) {
+        final long length = (long) width * height;
+        if (width < 0 || height < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(String.format(
+                    "Grid size can't be backed by a single array. [Width=%d, Height=%d]", width, height
+            ));
+        }
+        return (int) length;
+    }
+
+    /**
+     * The width of the smallest regular grid that can hold every row of {@code rows}.
+     */
+    protected static int widthOf(List<? extends List<?>> rows) {
+        int width = 0;
+        for (List<?> row : rows) {
+            width = Math.max(width, row.size());
+        }
+        return width;
+    }
+
+
+
+    /**
+     * Row-major walk straight down the backing array. Batches copy runs of the array with {@link System#arraycopy}, see
+     * {@link #nextPrimitiveBatch}.
+     */
+    public class ArraySequence implements Sequence<T> {
+
+        private int index;
+        private final int end = width * height;
+
+
+
+        protected ArraySequence() { }
+
+
+
+        @Override
+        public boolean hasNext() {
+            return index < end;
+        }
+
+        @Override
+        public boolean hasNextLocation() {
+            return index < end;
+        }
+
+        @Override
+        public T next() {
+            if (index >= end) throw new NoSuchElementException();
+            return getAt(index++);
+        }
+
+        @Override
+        public V2 nextLocation() {
+            if (index >= end) throw new NoSuchElementException();
+            final V2 location = new V2(index % width, index / width);
+            index++;
+            return location;
+        }
+
+        @Override
+        public boolean nextLocation(Cursor into) {
+            if (!peekLocation(into)) return false;
+            index++;
+            return true;
+        }
+
+        @Override
+        public boolean tryNext() {
+            if (index >= end) return false;
+            index++;
+            return true;
+        }
+
+        @Override
+        public Optional<T> peek() {
+            if (index >= end) return Optional.empty();
+            return Optional.of(getAt(index));
+        }
+
+        @Override
+        public Optional<V2> peekLocation() {
+            if (index >= end) return Optional.empty();
+            return Optional.of(new V2(index % width, index / width));
+        }
+
+        @Override
+        public boolean peekLocation(Cursor into) {
+            if (index >= end) return false;
+            into.set(index % width, index / width);
+            return true;
+        }
+
+        @Override
+        public int nextLocations(long[] locations, int offset, int length) {
+            final int count = Math.min(length, end - index);
+            writeLocations(locations, offset, count);
+            index += count;
+            return count;
+        }
+
+        @Override
+        public int nextBatch(T[] values, long[] locations, int offset, int length) {
+            final int count = Math.min(length, end - index);
+            if (locations != null) writeLocations(locations, offset, count);
+            for (int i = 0; i < count; i++) {
+                values[offset + i] = getAt(index++);
+            }
+            return count;
+        }
+
+        /**
+         * Unboxed {@link #nextBatch}, copying up to {@code length} values straight out of the backing array into
+         * {@code values}, an array of the same type, from {@code offset}.
+         */
+        public int nextPrimitiveBatch(A values, long[] locations, int offset, int length) {
+            final int count = Math.min(length, end - index);
+            if (locations != null) writeLocations(locations, offset, count);
+            System.arraycopy(data, index, values, offset, count);
+            index += count;
+            return count;
+        }
+
+        @Override
+        public void forEachRemainingCell(CellVisitor<? super T> visitor) {
+            forEachRemainingIndex((x, y, index) -> visitor.visit(x, y, getAt(index)));
+        }
+
+
+
+        /**
+         * Hands each remaining cell's position and array index to {@code visitor}, row-major, leaving the sequence at
+         * its end. Subclasses build unboxed {@link #forEachRemainingCell} variants on it by reading the array
+         * themselves.
+         */
+        protected final void forEachRemainingIndex(IndexVisitor visitor) {
+            int x = index % width;
+            int y = index / width;
+            for (; index < end; index++) {
+                visitor.visit(x, y, index);
+                if (++x == width) {
+                    x = 0;
+                    y++;
+                }
+            }
+        }
+
+        private void writeLocations(long[] locations, int offset, int count) {
+            int x = index % width;
+            int y = index / width;
+            for (int i = 0; i < count; i++) {
+                locations[offset + i] = Cursor.pack(x, y);
+                if (++x == width) {
+                    x = 0;
+                    y++;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Region of an array grid. On top of being a {@link Grid} it exposes where its rows sit in the shared backing
+     * array, so whole rows can be moved with {@link System#arraycopy} and {@link java.util.Arrays#fill} rather than a
+     * call per cell. Unlike {@link RegionView} it must lie entirely inside the grid.
+     */
+    public static class Region<T, A> extends RegionView<T> {
+
+        private final AbstractArrayGrid<T, A> grid;
+        private final int x;
+        private final int y;
+
+
+
+        protected Region(AbstractArrayGrid<T, A> grid, int x, int y, int width, int height) {
+            super(grid, x, y, width, height);
+            if (x < 0 || y < 0 || (long) x + width > grid.width || (long) y + height > grid.height) {
+                throw new IndexOutOfBoundsException(String.format(
+                        "Region is outside the grid. [X=%d, Y=%d, Width=%d, Height=%d, GridWidth=%d, GridHeight=%d]",
+                        x, y, width, height, grid.width, grid.height
+                ));
+            }
+            this.grid = grid;
+            this.x = x;
+            this.y = y;
+        }
+
+
+
+        /**
+         * The backing array of the whole grid, shared not copied.
+         */
+        public A array() {
+            return grid.data;
+        }
+
+        /**
+         * Index in {@link #array()} of the first cell of the region's {@code row}. The row's cells are the next
+         * {@link #width()} indexes.
+         */
+        public int offset(int row) {
+            return grid.index(x, y + row);
+        }
+
+        /**
+         * Distance in {@link #array()} between the starts of consecutive rows.
+         */
+        public int stride() {
+            return grid.width;
+        }
+
+        /**
+         * Whether the whole region is a single run of {@link #array()}, i.e. it spans full rows or is only one row.
+         */
+        public boolean isContiguous() {
+            return width() == grid.width || height() <= 1;
+        }
+
+        @Override
+        public int size() {
+            return width() * height();
+        }
+
+        /**
+         * Copies the region row-major into {@code dest} starting at {@code destPos}.
+         */
+        public void copyTo(A dest, int destPos) {
+            if (isContiguous()) {
+                System.arraycopy(grid.data, offset(0), dest, destPos, size());
+                return;
+            }
+            for (int row = 0; row < height(); row++) {
+                System.arraycopy(grid.data, offset(row), dest, destPos + (row * width()), width());
+            }
+        }
+
+        /**
+         * Copies row-major values from {@code src} starting at {@code srcPos} into the region.
+         */
+        public void copyFrom(A src, int srcPos) {
+            if (isContiguous()) {
+                System.arraycopy(src, srcPos, grid.data, offset(0), size());
+                return;
+            }
+            for (int row = 0; row < height(); row++) {
+                System.arraycopy(src, srcPos + (row * width()), grid.data, offset(row), width());
+            }
+        }
+
+        /**
+         * Copies this region into another of the same size, which may be in the same grid and may overlap this one.
+         */
+        public void copyTo(Region<T, A> dest) {
+            if (dest.width() != width() || dest.height() != height()) {
+                throw new IllegalArgumentException(String.format(
+                        "Regions differ in size. [From=%dx%d, To=%dx%d]",
+                        width(), height(), dest.width(), dest.height()
+                ));
+            }
+
+            // Moving down within the same array has to go bottom up, or rows would be overwritten before being read.
+            final boolean bottomUp = (dest.array() == array()) && dest.offset(0) > offset(0);
+            for (int i = 0; i < height(); i++) {
+                final int row = bottomUp ? height() - 1 - i : i;
+                System.arraycopy(grid.data, offset(row), dest.array(), dest.offset(row), width());
+            }
+        }
+
+        public void fill(T value) {
+            if (isContiguous()) {
+                grid.fill(offset(0), offset(0) + size(), value);
+                return;
+            }
+            for (int row = 0; row < height(); row++) {
+                grid.fill(offset(row), offset(row) + width(), value);
+            }
+        }
+
+    }
+
+    private record StencilOffsets(Stencil stencil, int[] offsets) { }
+
+    @FunctionalInterface
+    protected interface IndexVisitor {
+        void visit(int x, int y, int index);
+    }
+
+}
@@ -0,0 +1,239 @@
+package org.example;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Unbounded grid stored as square tiles ("chunks") of {@code 2^chunkBits} cells a side, each a single row-major array
+ * of type {@code A}. Chunks are only allocated on the first write into them and are kept in a {@link LongObjectMap}
+ * keyed by their packed chunk coordinates.
+ * <p>
+ * Every cell of an allocated chunk exists, reading one that was never written gives the array's default value. Cells in
+ * unallocated chunks don't exist. Iteration goes chunk by chunk, in hash order, and row-major within each chunk, so
+ * absent chunks cost nothing to skip.
+ */
+public abstract class AbstractChunkedGrid<T, A> extends AbstractGrid<T> implements MutableGrid<T> {
+
+    public static final int DEFAULT_CHUNK_BITS = 5;
+
+    protected final int chunkBits;
+    protected final int chunkMask;
+    protected final int chunkArea;
+
+    private final LongObjectMap<A> chunks = new LongObjectMap<>();
+
+    /**
+     * Most recently used chunk, hits for runs of lookups in the same chunk skip the hash map. Swapped as a whole so a
+     * racing reader can't pair one chunk's key with another's array.
+     */
+    private ChunkRef<A> lastChunk;
+
+    private int minChunkX;
+    private int minChunkY;
+    private int maxChunkX;
+    private int maxChunkY;
+
+
+
+    protected AbstractChunkedGrid(int chunkBits) {
+        if (chunkBits < 1 || chunkBits > 12) {
+            throw new IllegalArgumentException(String.format(
+                    "Chunk bits must be between 1 and 12. [ChunkBits=%d]", chunkBits
+            ));
+        }
+        this.chunkBits = chunkBits;
+        this.chunkMask = (1 << chunkBits) - 1;
+        this.chunkArea = 1 << (2 * chunkBits);
+    }
+
+
+
+    public int chunkSize() {
+        return 1 << chunkBits;
+    }
+
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * The value at (x, y). Cells in unallocated chunks read as null.
+     */
+    @Override
+    public T get(int x, int y) {
+        final A chunk = chunk(x, y);
+        return (chunk != null) ? getAt(chunk, localIndex(x, y)) : null;
+    }
+
+    @Override
+    public void set(int x, int y, T value) {
+        setAt(chunkForWrite(x, y), localIndex(x, y), value);
+    }
+
+    @Override
+    public boolean exists(int x, int y) {
+        return chunk(x, y) != null;
+    }
+
+    /**
+     * Capped at {@link Integer#MAX_VALUE} as per {@link java.util.Collection#size()}.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) chunks.size() * chunkArea);
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+        lastChunk = null;
+    }
+
+    /**
+     * The extent of the allocated chunks, in cells.
+     */
+    @Override
+    public Rect bounds() {
+        if (chunks.isEmpty()) return Rect.EMPTY;
+        return new Rect(
+                minChunkX << chunkBits,
+                minChunkY << chunkBits,
+                (maxChunkX - minChunkX + 1) << chunkBits,
+                (maxChunkY - minChunkY + 1) << chunkBits
+        );
+    }
+
+    @Override
+    public Sequence<T> iterator() {
+        return new ChunkSequence();
+    }
+
+
+
+    protected abstract A newChunk(int area);
+
+    protected abstract T getAt(A chunk, int index);
+
+    protected abstract void setAt(A chunk, int index, T value);
+
+    /**
+     * The chunk holding (x, y), or null if it hasn't been allocated.
+     */
+    protected final A chunk(int x, int y) {
+        final long key = Cursor.pack(x >> chunkBits, y >> chunkBits);
+        final ChunkRef<A> last = lastChunk;
+        if (last != null && last.key == key) return last.chunk;
+
+        final A chunk = chunks.get(key);
+        if (chunk != null) lastChunk = new ChunkRef<>(key, chunk);
+        return chunk;
+    }
+
+    protected final A chunkForWrite(int x, int y) {
+        final A existing = chunk(x, y);
+        if (existing != null) return existing;
+
+        final int chunkX = x >> chunkBits;
+        final int chunkY = y >> chunkBits;
+        final A chunk = newChunk(chunkArea);
+        if (chunks.isEmpty()) {
+            minChunkX = maxChunkX = chunkX;
+            minChunkY = maxChunkY = chunkY;
+        } else {
+            minChunkX = Math.min(minChunkX, chunkX);
+            minChunkY = Math.min(minChunkY, chunkY);
+            maxChunkX = Math.max(maxChunkX, chunkX);
+            maxChunkY = Math.max(maxChunkY, chunkY);
+        }
+        chunks.put(Cursor.pack(chunkX, chunkY), chunk);
+        return chunk;
+    }
+
+    protected final int localIndex(int x, int y) {
+        return ((y & chunkMask) << chunkBits) | (x & chunkMask);
+    }
+
+
+
+    private record ChunkRef<A>(long key, A chunk) { }
+
+    /**
+     * Chunk by chunk, row-major inside each. Not fail-fast, chunks mustn't be allocated while this is in use.
+     */
+    private class ChunkSequence implements Sequence<T> {
+
+        private int slot = chunks.nextSlot(0);
+        private int local;
+
+
+
+        @Override
+        public boolean hasNext() {
+            return slot >= 0;
+        }
+
+        @Override
+        public boolean hasNextLocation() {
+            return slot >= 0;
+        }
+
+        @Override
+        public T next() {
+            if (slot < 0) throw new NoSuchElementException();
+            final T value = getAt(chunks.valueAt(slot), local);
+            advance();
+            return value;
+        }
+
+        @Override
+        public V2 nextLocation() {
+            if (slot < 0) throw new NoSuchElementException();
+            final V2 location = new V2(x(), y());
+            advance();
+            return location;
+        }
+
+        @Override
+        public boolean nextLocation(Cursor into) {
+            if (slot < 0) return false;
+            into.set(x(), y());
+            advance();
+            return true;
+        }
+
+        @Override
+        public Optional<T> peek() {
+            if (slot < 0) return Optional.empty();
+            return Optional.ofNullable(getAt(chunks.valueAt(slot), local));
+        }
+
+        @Override
+        public Optional<V2> peekLocation() {
+            if (slot < 0) return Optional.empty();
+            return Optional.of(new V2(x(), y()));
+        }
+
+        @Override
+        public boolean peekLocation(Cursor into) {
+            if (slot < 0) return false;
+            into.set(x(), y());
+            return true;
+        }
+
+        private int x() {
+            return (Cursor.unpackX(chunks.keyAt(slot)) << chunkBits) | (local & chunkMask);
+        }
+
+        private int y() {
+            return (Cursor.unpackY(chunks.keyAt(slot)) << chunkBits) | (local >>> chunkBits);
+        }
+
+        private void advance() {
+            if (++local < chunkArea) return;
+            local = 0;
+            slot = chunks.nextSlot(slot + 1);
+        }
+
+    }
+
+}
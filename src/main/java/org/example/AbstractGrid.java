@@ -1,16 +1,27 @@
 package org.example;
 
 import lombok.NonNull;
+import org.example.RaySpliterator.StepReader;
 
 import java.util.AbstractCollection;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 public abstract class AbstractGrid<T> extends AbstractCollection<T> implements Grid<T> {
 
+    /**
+     * Rays of a {@link LinearPattern} are clipped once by {@link #rayLength(int, int, int, int)} and then read without
+     * checking each step.
+     */
     @Override
     public Sequence<T> iterator(V2 start, Pattern pattern) {
-        return new Itor<>(this, pattern, start);
+        final int length = rayLength(start, pattern);
+        if (length < 0) return new Itor<>(this, pattern, start);
+
+        final LinearPattern ray = (LinearPattern) pattern;
+        return new RaySequence<>(start, ray.xIncrement(), ray.yIncrement(), length, rayReader(start, ray));
     }
 
     @Override
@@ -23,6 +34,69 @@ public abstract class AbstractGrid<T> extends AbstractCollection<T> implements G
         return new SequenceBride<>(iterator(start, pattern));
     }
 
+    /**
+     * Exactly sized for rays of a {@link LinearPattern}.
+     */
+    @Override
+    public Spliterator<T> spliterator(V2 start, Pattern pattern) {
+        final int length = rayLength(start, pattern);
+        if (length < 0) return Grid.super.spliterator(start, pattern);
+        return RaySpliterator.of(length, rayReader(start, (LinearPattern) pattern), 0);
+    }
+
+    @Override
+    public Spliterator<Locatable<T>> locatableSpliterator(V2 start, Pattern pattern) {
+        final int length = rayLength(start, pattern);
+        if (length < 0) return Grid.super.locatableSpliterator(start, pattern);
+
+        final LinearPattern ray = (LinearPattern) pattern;
+        final StepReader<T> reader = rayReader(start, ray);
+        return RaySpliterator.of(length, step -> new LocationPair<>(
+                reader.read(step),
+                new V2(start.x() + step * ray.xIncrement(), start.y() + step * ray.yIncrement())
+        ), Spliterator.NONNULL);
+    }
+
+
+
+    /**
+     * Reads the cell {@code step} steps along a ray from {@code start}. Only called for steps within
+     * {@link #rayLength(int, int, int, int)}, so implementations needn't check the cell exists.
+     */
+    protected StepReader<T> rayReader(V2 start, LinearPattern ray) {
+        final int x = start.x();
+        final int y = start.y();
+        final int xIncrement = ray.xIncrement();
+        final int yIncrement = ray.yIncrement();
+        return step -> get(x + step * xIncrement, y + step * yIncrement);
+    }
+
+    /**
+     * Number of steps from {@code start} along {@code increment} that stay within [min, end), 0 if {@code start}
+     * itself doesn't, for clipping rays one axis at a time.
+     */
+    protected static int stepsWithin(int start, int increment, int min, int end) {
+        if (start < min || start >= end) return 0;
+        if (increment == 0) return Integer.MAX_VALUE;
+
+        final long steps = (increment > 0)
+                ? (((long) end - 1 - start) / increment) + 1
+                : (((long) start - min) / -(long) increment) + 1;
+        return (int) Math.min(Integer.MAX_VALUE, steps);
+    }
+
+
+
+    /**
+     * Length of the ray {@code pattern} walks from {@code start}, or -1 if it isn't a ray that can be walked as one.
+     */
+    private int rayLength(V2 start, Pattern pattern) {
+        if (start == null || !(pattern instanceof LinearPattern ray)) return -1;
+        final int length = rayLength(start.x(), start.y(), ray.xIncrement(), ray.yIncrement());
+        // A zero step never ends, leave that to the general walk.
+        return (length == Integer.MAX_VALUE) ? -1 : length;
+    }
+
 
 
     public record LocationPair<T>(T get, V2 location) implements Locatable<T> { }
@@ -66,12 +140,17 @@ public abstract class AbstractGrid<T> extends AbstractCollection<T> implements G
 
 
 
+    /**
+     * Walks a {@link Pattern} over a grid with a single reused {@link Cursor}, so stepping through {@link #next()} or
+     * {@link #nextLocation(Cursor)} doesn't allocate as long as the pattern overrides {@link Pattern#step(Cursor)}.
+     */
     protected static class Itor<T> implements Sequence<T> {
 
         private final Grid<T> grid;
         private final Pattern pattern;
 
-        private V2 next;
+        private final Cursor next = new Cursor();
+        private boolean hasNext;
 
 
 
@@ -80,55 +159,223 @@ public abstract class AbstractGrid<T> extends AbstractCollection<T> implements G
             this.pattern = pattern;
             // You can't start an iteration from somewhere that doesn't exist as it is not clear where you should go
             // next in general.
-            this.next = (start != null && grid.exists(start)) ? start : null;
+            if (start != null && grid.exists(start)) {
+                next.set(start.x(), start.y());
+                hasNext = true;
+            }
         }
 
 
 
         @Override
         public boolean hasNext() {
-            return next != null;
+            return hasNext;
         }
 
         @Override
         public boolean hasNextLocation() {
-            return next != null;
+            return hasNext;
         }
 
         @Override
         public T next() {
-            if (next == null) throw new NoSuchElementException();
-            final T current = grid.get(next);
-            next = progress();
+            if (!hasNext) throw new NoSuchElementException();
+            final T current = grid.get(next.x(), next.y());
+            progress();
             return current;
         }
 
         @Override
         public V2 nextLocation() {
-            if (next == null) throw new NoSuchElementException();
-            final V2 current = next;
-            next = progress();
+            if (!hasNext) throw new NoSuchElementException();
+            final V2 current = next.toV2();
+            progress();
             return current;
         }
 
+        @Override
+        public boolean nextLocation(Cursor into) {
+            if (!hasNext) return false;
+            into.set(next);
+            progress();
+            return true;
+        }
+
         @Override
         public Optional<T> peek() {
             // Exists is checked at next assignment.
-            if (next == null) return Optional.empty();
-            return Optional.of(grid.get(next));
+            if (!hasNext) return Optional.empty();
+            return Optional.of(grid.get(next.x(), next.y()));
         }
 
         @Override
         public Optional<V2> peekLocation() {
             // Exists is checked at next assignment.
-            return Optional.ofNullable(next);
+            if (!hasNext) return Optional.empty();
+            return Optional.of(next.toV2());
+        }
+
+        @Override
+        public boolean peekLocation(Cursor into) {
+            if (!hasNext) return false;
+            into.set(next);
+            return true;
+        }
+
+        private void progress() {
+            // Filter out positions that don't exist on the grid.
+            hasNext = pattern.step(next) && grid.exists(next.x(), next.y());
+        }
+
+    }
+
+    /**
+     * Row-major walk over a regular {@code width} by {@code height} grid anchored at the origin.
+     */
+    protected record RowMajorPattern(int width, int height) implements Pattern {
+        @Override
+        public Optional<V2> next(V2 current) {
+            final int nextX = current.x() + 1;
+            if (nextX < width) return Optional.of(new V2(nextX, current.y()));
+
+            final int nextY = current.y() + 1;
+            if (nextY < height) return Optional.of(new V2(0, nextY));
+
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean step(Cursor cursor) {
+            if (cursor.x() + 1 < width) {
+                cursor.move(1, 0);
+                return true;
+            }
+
+            if (cursor.y() + 1 < height) {
+                cursor.set(0, cursor.y() + 1);
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Walks a ray of known length, reading each cell by its step so there is nothing to check along the way.
+     */
+    protected static class RaySequence<T> implements Sequence<T> {
+
+        private final int x;
+        private final int y;
+        private final int xIncrement;
+        private final int yIncrement;
+        private final int length;
+        private final StepReader<T> reader;
+
+        private int step;
+
+
+
+        public RaySequence(V2 start, int xIncrement, int yIncrement, int length, StepReader<T> reader) {
+            this.x = start.x();
+            this.y = start.y();
+            this.xIncrement = xIncrement;
+            this.yIncrement = yIncrement;
+            this.length = length;
+            this.reader = reader;
+        }
+
+
+
+        @Override
+        public boolean hasNext() {
+            return step < length;
+        }
+
+        @Override
+        public boolean hasNextLocation() {
+            return step < length;
+        }
+
+        @Override
+        public T next() {
+            if (step >= length) throw new NoSuchElementException();
+            return reader.read(step++);
+        }
+
+        @Override
+        public V2 nextLocation() {
+            if (step >= length) throw new NoSuchElementException();
+            final V2 location = location(step);
+            step++;
+            return location;
+        }
+
+        @Override
+        public boolean nextLocation(Cursor into) {
+            if (!peekLocation(into)) return false;
+            step++;
+            return true;
+        }
+
+        @Override
+        public boolean tryNext() {
+            if (step >= length) return false;
+            step++;
+            return true;
         }
 
-        private V2 progress() {
-            return pattern.next(next)
-                    // Filter out V2s that doesn't exist on the grid.
-                    .filter(grid::exists)
-                    .orElse(null);
+        @Override
+        public Optional<T> peek() {
+            if (step >= length) return Optional.empty();
+            return Optional.of(reader.read(step));
+        }
+
+        @Override
+        public Optional<V2> peekLocation() {
+            if (step >= length) return Optional.empty();
+            return Optional.of(location(step));
+        }
+
+        @Override
+        public boolean peekLocation(Cursor into) {
+            if (step >= length) return false;
+            into.set(x + step * xIncrement, y + step * yIncrement);
+            return true;
+        }
+
+        @Override
+        public int nextLocations(long[] locations, int offset, int length) {
+            final int count = Math.min(length, this.length - step);
+            for (int i = 0; i < count; i++, step++) {
+                locations[offset + i] = Cursor.pack(x + step * xIncrement, y + step * yIncrement);
+            }
+            return count;
+        }
+
+        @Override
+        public int nextBatch(T[] values, long[] locations, int offset, int length) {
+            final int count = Math.min(length, this.length - step);
+            if (locations != null) {
+                for (int i = 0; i < count; i++) {
+                    locations[offset + i] = Cursor.pack(x + (step + i) * xIncrement, y + (step + i) * yIncrement);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                values[offset + i] = reader.read(step++);
+            }
+            return count;
+        }
+
+        @Override
+        public void forEachRemainingCell(CellVisitor<? super T> visitor) {
+            for (; step < length; step++) {
+                visitor.visit(x + step * xIncrement, y + step * yIncrement, reader.read(step));
+            }
+        }
+
+        private V2 location(int at) {
+            return new V2(x + at * xIncrement, y + at * yIncrement);
         }
 
     }
@@ -171,6 +418,79 @@ public abstract class AbstractGrid<T> extends AbstractCollection<T> implements G
 
 
 
+    /**
+     * {@link Grid#flyweightLocatableIterator()}, reads the location through {@link #peekLocation(Cursor)} and writes it
+     * with the value into a single {@link Flyweight}.
+     */
+    protected static class FlyweightSequence<T> implements Sequence<Locatable<T>> {
+
+        private final Sequence<T> position;
+        private final Flyweight<T> flyweight = new Flyweight<>();
+        private final Cursor cursor = new Cursor();
+
+
+
+        public FlyweightSequence(Sequence<T> position) {
+            this.position = position;
+        }
+
+
+
+        @Override
+        public boolean hasNext() {
+            return position.hasNext();
+        }
+
+        @Override
+        public boolean hasNextLocation() {
+            return position.hasNextLocation();
+        }
+
+        @Override
+        public Locatable<T> next() {
+            if (!position.peekLocation(cursor)) throw new NoSuchElementException();
+            return flyweight.set(cursor.x(), cursor.y(), position.next());
+        }
+
+        @Override
+        public V2 nextLocation() {
+            return position.nextLocation();
+        }
+
+        @Override
+        public boolean nextLocation(Cursor into) {
+            return position.nextLocation(into);
+        }
+
+        @Override
+        public boolean tryNext() {
+            return position.tryNext();
+        }
+
+        @Override
+        public Optional<Locatable<T>> peek() {
+            if (!position.peekLocation(cursor)) return Optional.empty();
+            final T value = position.peek().orElse(null);
+            return Optional.of(flyweight.set(cursor.x(), cursor.y(), value));
+        }
+
+        @Override
+        public Optional<V2> peekLocation() {
+            return position.peekLocation();
+        }
+
+        @Override
+        public boolean peekLocation(Cursor into) {
+            return position.peekLocation(into);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Locatable<T>> action) {
+            position.forEachRemainingCell((x, y, value) -> action.accept(flyweight.set(x, y, value)));
+        }
+
+    }
+
     private static class SequenceBride<T> implements Sequence<Locatable<T>> {
 
         private final Sequence<T> position;
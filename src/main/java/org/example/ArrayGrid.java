@@ -0,0 +1,58 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dense, regular grid of references. Unlike {@link ListGrid} there is a single flat array behind it, so a lookup is one
+ * array access rather than two list indirections.
+ */
+public class ArrayGrid<T> extends AbstractArrayGrid<T, Object[]> {
+
+    /**
+     * For use by subclasses.
+     */
+    protected ArrayGrid(int width, int height, Object[] data) {
+        super(width, height, data, data.length);
+    }
+
+    /**
+     * A grid with every cell set to null.
+     */
+    public static <T> ArrayGrid<T> of(int width, int height) {
+        return new ArrayGrid<>(width, height, new Object[checkedLength(width, height)]);
+    }
+
+    /**
+     * Copies possibly jagged rows into a regular grid, cells missing from short rows are left as null.
+     */
+    public static <T> ArrayGrid<T> copyOf(List<? extends List<? extends T>> rows) {
+        final ArrayGrid<T> grid = of(widthOf(rows), rows.size());
+        for (int y = 0; y < rows.size(); y++) {
+            final List<? extends T> row = rows.get(y);
+            for (int x = 0; x < row.size(); x++) {
+                grid.data[grid.index(x, y)] = row.get(x);
+            }
+        }
+        return grid;
+    }
+
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T getAt(int index) {
+        return (T) data[index];
+    }
+
+    @Override
+    protected void setAt(int index, T value) {
+        data[index] = value;
+    }
+
+    @Override
+    protected void fill(int from, int to, T value) {
+        Arrays.fill(data, from, to, value);
+    }
+
+}
@@ -0,0 +1,291 @@
+package org.example;
+
+import org.example.Grid.CardanlPattern;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps a cellular automaton over a regular board of {@code int} states. The board lives in two primitive buffers that
+ * swap every generation, and each generation is computed in row bands on a {@link ForkJoinPool}. Neighbours are read
+ * straight from the buffer, nothing is allocated per cell.
+ * <p>
+ * Not thread safe, only one thread should step or read an automaton at a time.
+ */
+public class Automaton {
+
+    /**
+     * Bands smaller than this many cells aren't split any further.
+     */
+    private static final int MIN_BAND_CELLS = 1 << 14;
+
+    private final int width;
+    private final int height;
+    private final Rule rule;
+    private final EdgeMode edgeMode;
+    private final Stencil stencil;
+    private final int[] indexOffsets;
+    private final ForkJoinPool pool;
+
+    private int[] front;
+    private int[] back;
+    private long generation;
+
+
+
+    public Automaton(Grid<? extends Number> initial, Rule rule, EdgeMode edgeMode) {
+        this(initial, rule, edgeMode, Stencil.moore(), ForkJoinPool.commonPool());
+    }
+
+    public Automaton(Grid<? extends Number> initial, Rule rule, EdgeMode edgeMode, ForkJoinPool pool) {
+        this(initial, rule, edgeMode, Stencil.moore(), pool);
+    }
+
+    /**
+     * Copies {@code initial}, which must not have cells at negative coordinates, into the automaton's own buffers.
+     * Cells it doesn't have, or holds null for, start as 0.
+     *
+     * @param stencil the neighbourhood handed to the rule, {@link Stencil#moore()} unless given.
+     */
+    public Automaton(
+            Grid<? extends Number> initial, Rule rule, EdgeMode edgeMode, Stencil stencil, ForkJoinPool pool
+    ) {
+        final Grid.Rect bounds = initial.bounds();
+        if (bounds.x() < 0 || bounds.y() < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Grid has cells at negative coordinates. [Bounds=%s]", bounds
+            ));
+        }
+
+        this.width = bounds.x() + bounds.width();
+        this.height = bounds.y() + bounds.height();
+        this.rule = rule;
+        this.edgeMode = edgeMode;
+        this.stencil = stencil;
+        this.indexOffsets = stencil.indexOffsets(width);
+        this.pool = pool;
+
+        final int length = Math.multiplyExact(width, height);
+        this.front = new int[length];
+        this.back = new int[length];
+        for (int y = bounds.y(); y < height; y++) {
+            for (int x = bounds.x(); x < width; x++) {
+                if (!initial.exists(x, y)) continue;
+                final Number value = initial.get(x, y);
+                if (value != null) front[y * width + x] = value.intValue();
+            }
+        }
+    }
+
+
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Number of generations stepped so far.
+     */
+    public long generation() {
+        return generation;
+    }
+
+    public int get(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the board. [X=%d, Y=%d, Width=%d, Height=%d]", x, y, width, height
+            ));
+        }
+        return front[y * width + x];
+    }
+
+    /**
+     * Live view of the current generation. It is backed by a buffer the automaton reuses, so it is only valid until
+     * the next step, use {@link #snapshot()} to keep a generation.
+     */
+    public IntGrid current() {
+        return IntGrid.noCopy(width, height, front);
+    }
+
+    public IntGrid snapshot() {
+        return IntGrid.noCopy(width, height, front.clone());
+    }
+
+    public void step() {
+        pool.invoke(new Band(0, height));
+        final int[] swap = front;
+        front = back;
+        back = swap;
+        generation++;
+    }
+
+    public void step(int generations) {
+        for (int i = 0; i < generations; i++) step();
+    }
+
+
+
+    private void stepRows(int fromRow, int toRow) {
+        final int[] neighbours = new int[stencil.size()];
+        final int radius = stencil.radius();
+        for (int y = fromRow; y < toRow; y++) {
+            final boolean interiorRow = y >= radius && y < height - radius;
+            for (int x = 0; x < width; x++) {
+                final int index = y * width + x;
+                if (interiorRow && x >= radius && x < width - radius) {
+                    readInterior(index, neighbours);
+                } else {
+                    readEdge(x, y, neighbours);
+                }
+                back[index] = rule.next(front[index], neighbours);
+            }
+        }
+    }
+
+    /**
+     * Every neighbour is on the board, so they are read by flat offset with no edge handling.
+     */
+    private void readInterior(int index, int[] neighbours) {
+        final int[] cells = front;
+        final int[] offsets = indexOffsets;
+        for (int i = 0; i < offsets.length; i++) {
+            neighbours[i] = cells[index + offsets[i]];
+        }
+    }
+
+    private void readEdge(int x, int y, int[] neighbours) {
+        for (int i = 0; i < neighbours.length; i++) {
+            neighbours[i] = edgeMode.read(front, width, height, x + stencil.dx(i), y + stencil.dy(i));
+        }
+    }
+
+
+
+    /**
+     * Rows [from, to), split in halves until small enough to step on one thread.
+     */
+    private class Band extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+
+
+
+        private Band(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+
+
+        @Override
+        protected void compute() {
+            final int rows = to - from;
+            if (rows < 2 || (long) rows * width <= MIN_BAND_CELLS) {
+                stepRows(from, to);
+                return;
+            }
+
+            final int middle = from + (rows / 2);
+            invokeAll(new Band(from, middle), new Band(middle, to));
+        }
+
+    }
+
+
+
+    /**
+     * What a cell off the board reads as.
+     */
+    public enum EdgeMode {
+        /**
+         * The nearest cell on the board.
+         */
+        CLAMP {
+            @Override
+            int read(int[] cells, int width, int height, int x, int y) {
+                final int clampedX = Math.max(0, Math.min(width - 1, x));
+                final int clampedY = Math.max(0, Math.min(height - 1, y));
+                return cells[clampedY * width + clampedX];
+            }
+        },
+        /**
+         * The board wraps round, as a torus.
+         */
+        WRAP {
+            @Override
+            int read(int[] cells, int width, int height, int x, int y) {
+                return cells[Math.floorMod(y, height) * width + Math.floorMod(x, width)];
+            }
+        },
+        /**
+         * Always 0.
+         */
+        DEAD {
+            @Override
+            int read(int[] cells, int width, int height, int x, int y) {
+                if (x < 0 || y < 0 || x >= width || y >= height) return 0;
+                return cells[y * width + x];
+            }
+        };
+
+        abstract int read(int[] cells, int width, int height, int x, int y);
+    }
+
+    /**
+     * Works out a cell's next state. Called concurrently from several threads, so it must not keep state between
+     * calls.
+     */
+    @FunctionalInterface
+    public interface Rule {
+        /**
+         * @param neighbours the states at the automaton's {@link Stencil} offsets, in stencil order. For the
+         *                   default {@link Stencil#moore()} that is the eight surrounding cells in
+         *                   {@link CardanlPattern#values()} order. The array is reused between calls and mustn't be
+         *                   kept.
+         */
+        int next(int self, int[] neighbours);
+
+        /**
+         * Two state, Life-like rule in B/S notation, such as {@code "B3/S23"} for Conway's Game of Life. Cells are
+         * alive when non-zero and the rule gives back 1 or 0.
+         */
+        static Rule lifeLike(String notation) {
+            final String[] parts = notation.toUpperCase().split("/");
+            if (parts.length != 2 || !parts[0].startsWith("B") || !parts[1].startsWith("S")) {
+                throw new IllegalArgumentException(String.format(
+                        "Expected B/S notation, such as B3/S23. [Notation=%s]", notation
+                ));
+            }
+            final int birth = countMask(parts[0].substring(1), notation);
+            final int survival = countMask(parts[1].substring(1), notation);
+
+            return (self, neighbours) -> {
+                int alive = 0;
+                for (int neighbour : neighbours) {
+                    if (neighbour != 0) alive++;
+                }
+                final int mask = (self != 0) ? survival : birth;
+                return (alive < Integer.SIZE) ? (mask >>> alive) & 1 : 0;
+            };
+        }
+
+        private static int countMask(String counts, String notation) {
+            int mask = 0;
+            for (char count : counts.toCharArray()) {
+                if (count < '0' || count > '8') {
+                    throw new IllegalArgumentException(String.format(
+                            "Neighbour counts run from 0 to 8. [Notation=%s]", notation
+                    ));
+                }
+                mask |= 1 << (count - '0');
+            }
+            return mask;
+        }
+    }
+
+}
@@ -3,17 +3,16 @@ package org.example;
 import javax.swing.JPanel;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 
 public class CellBox extends JPanel {
 
-    private static final String TOP_LEFT_CONNER = "┌";
-    private static final String TOP_RIGHT_CONNER = "┐";
-    private static final String BOTTOM_LEFT_CONNER = "└";
-    private static final String BOTTOM_RIGHT_CONNER = "┘";
-    private static final String VERTICAL = "│";
-    private static final String HORIZONTAL = "─";
+    private static final char TOP_LEFT_CONNER = '┌';
+    private static final char TOP_RIGHT_CONNER = '┐';
+    private static final char BOTTOM_LEFT_CONNER = '└';
+    private static final char BOTTOM_RIGHT_CONNER = '┘';
+    private static final char VERTICAL = '│';
+    private static final char HORIZONTAL = '─';
 
 
 
@@ -27,50 +26,48 @@ public class CellBox extends JPanel {
 
 
 
+    /**
+     * Glyphs are blitted from the {@link GlyphAtlas}, only the edge cells are drawn.
+     */
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        final Dimension cellSize = CellLayout.cellSize(getGraphics(), getFont());
+        final GlyphAtlas.Page page = GlyphAtlas.shared().page(g, getFont(), getForeground());
+        final Dimension cellSize = page.cellSize();
 
-        final int width = (int) (getWidth() / cellSize.getWidth());
-        final int height = (int) (getHeight() / cellSize.getHeight());
+        final int width = getWidth() / cellSize.width;
+        final int height = getHeight() / cellSize.height;
 
         if (width <= 0 || height <= 0) return;
 
-        final FontMetrics fontMetrics = g.getFontMetrics();
-        final int descent = fontMetrics.getDescent();
-
         if (width == 1) {
             for (int i = 0; i < height; i++) {
-                g.drawString(VERTICAL, 0, (cellSize.height * (i + 1)) - descent);
+                page.draw(g, VERTICAL, 0, cellSize.height * i);
             }
             return;
         }
 
         if (height == 1) {
-            final String bar = HORIZONTAL.repeat(width);
-            g.drawString(bar, 0, cellSize.height - descent);
+            for (int i = 0; i < width; i++) {
+                page.draw(g, HORIZONTAL, cellSize.width * i, 0);
+            }
             return;
         }
 
-        final int rightHandSide = getWidth() - cellSize.width;
-        for (int i = 0; i < height; i++) {
-            if (i == 0) {
-                final String topBar = TOP_LEFT_CONNER + HORIZONTAL.repeat(width - 2) + TOP_RIGHT_CONNER;
-                g.drawString(topBar, 0, cellSize.height - descent);
-                continue;
-            }
-
-            if (i == height - 1) {
-                final String bottomBar = BOTTOM_LEFT_CONNER + HORIZONTAL.repeat(width - 2) + BOTTOM_RIGHT_CONNER;
-                g.drawString(bottomBar, 0, (cellSize.height * height) - descent);
-                continue;
-            }
-
-            final int yPos = (cellSize.height * (i + 1)) - descent;
-            g.drawString(VERTICAL, 0, yPos);
-            g.drawString(VERTICAL, rightHandSide, yPos);
+        final int rightHandSide = cellSize.width * (width - 1);
+        final int bottom = cellSize.height * (height - 1);
+        page.draw(g, TOP_LEFT_CONNER, 0, 0);
+        page.draw(g, TOP_RIGHT_CONNER, rightHandSide, 0);
+        page.draw(g, BOTTOM_LEFT_CONNER, 0, bottom);
+        page.draw(g, BOTTOM_RIGHT_CONNER, rightHandSide, bottom);
+        for (int i = 1; i < width - 1; i++) {
+            page.draw(g, HORIZONTAL, cellSize.width * i, 0);
+            page.draw(g, HORIZONTAL, cellSize.width * i, bottom);
+        }
+        for (int i = 1; i < height - 1; i++) {
+            page.draw(g, VERTICAL, 0, cellSize.height * i);
+            page.draw(g, VERTICAL, rightHandSide, cellSize.height * i);
         }
     }
 
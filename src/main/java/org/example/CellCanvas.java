@@ -0,0 +1,201 @@
+package org.example;
+
+import org.example.Grid.Rect;
+
+import javax.swing.JComponent;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+/**
+ * Draws a whole {@link Grid} as a single component, one {@link CellLayout#cellSize(FontMetrics)} cell per grid cell.
+ * Only the cells inside the clip are visited, so the cost of a paint scales with the area repainted rather than the
+ * size of the grid.
+ * <p>
+ * The top left of the grid's {@link Grid#bounds()} is drawn at the top left of the component. The grid is read on
+ * every paint, call {@link #repaintCells(Rect)} or {@link #repaint()} after changing it.
+ */
+public class CellCanvas<T> extends JComponent {
+
+    private Grid<T> grid;
+    private CellRenderer<? super T> renderer;
+
+
+
+    public CellCanvas(Grid<T> grid, CellRenderer<? super T> renderer) {
+        this.grid = grid;
+        this.renderer = renderer;
+    }
+
+
+
+    public Grid<T> getGrid() {
+        return grid;
+    }
+
+    public void setGrid(Grid<T> grid) {
+        this.grid = grid;
+        revalidate();
+        repaint();
+    }
+
+    public CellRenderer<? super T> getRenderer() {
+        return renderer;
+    }
+
+    public void setRenderer(CellRenderer<? super T> renderer) {
+        this.renderer = renderer;
+        repaint();
+    }
+
+    /**
+     * The cell size changes with the font, so the preferred size does too.
+     */
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        revalidate();
+        repaint();
+    }
+
+    public Dimension getCellSize() {
+        return CellLayout.cellSize(getFontMetrics(getFont()));
+    }
+
+    /**
+     * Repaints just the cell at grid position (x, y).
+     */
+    public void repaintCell(int x, int y) {
+        repaintCells(new Rect(x, y, 1, 1));
+    }
+
+    /**
+     * Repaints the cells in {@code cells}, given in grid coordinates, such as those from
+     * {@link ObservableGrid#changedSince(long)}.
+     */
+    public void repaintCells(Rect cells) {
+        final Rect bounds = grid.bounds();
+        final Dimension cellSize = getCellSize();
+        repaint(
+                (cells.x() - bounds.x()) * cellSize.width, (cells.y() - bounds.y()) * cellSize.height,
+                cells.width() * cellSize.width, cells.height() * cellSize.height
+        );
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) return super.getPreferredSize();
+        final Rect bounds = grid.bounds();
+        final Dimension cellSize = getCellSize();
+        return new Dimension(bounds.width() * cellSize.width, bounds.height() * cellSize.height);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+
+        final Rect bounds = grid.bounds();
+        final FontMetrics fontMetrics = g.getFontMetrics(getFont());
+        final Dimension cellSize = CellLayout.cellSize(fontMetrics);
+        if (bounds.isEmpty() || cellSize.width <= 0 || cellSize.height <= 0) return;
+
+        final Rectangle clip = (g.getClipBounds() != null) ? g.getClipBounds() : new Rectangle(getSize());
+        final int fromX = Math.max(0, clip.x / cellSize.width);
+        final int fromY = Math.max(0, clip.y / cellSize.height);
+        final int toX = Math.min(bounds.width(), Math.ceilDiv(clip.x + clip.width, cellSize.width));
+        final int toY = Math.min(bounds.height(), Math.ceilDiv(clip.y + clip.height, cellSize.height));
+
+        for (int row = fromY; row < toY; row++) {
+            final int y = bounds.y() + row;
+            final int pixelY = row * cellSize.height;
+            paintBackgrounds(g, bounds.x(), y, fromX, toX, pixelY, cellSize);
+            paintGlyphs(g, bounds.x(), y, fromX, toX, pixelY, cellSize);
+        }
+    }
+
+
+
+    /**
+     * Fills runs of cells with the same background in one call, most boards have long runs of one colour.
+     */
+    private void paintBackgrounds(Graphics g, int originX, int y, int fromX, int toX, int pixelY, Dimension cellSize) {
+        Color runColour = null;
+        int runStart = fromX;
+        for (int column = fromX; column <= toX; column++) {
+            final Color colour = (column < toX) ? backgroundAt(originX + column, y) : null;
+            if (colour != null && colour.equals(runColour)) continue;
+
+            if (runColour != null) {
+                g.setColor(runColour);
+                g.fillRect(runStart * cellSize.width, pixelY, (column - runStart) * cellSize.width, cellSize.height);
+            }
+            runColour = colour;
+            runStart = column;
+        }
+    }
+
+    /**
+     * Glyphs are blitted from the {@link GlyphAtlas}, the page is only looked up again when the colour changes.
+     */
+    private void paintGlyphs(Graphics g, int originX, int y, int fromX, int toX, int pixelY, Dimension cellSize) {
+        Color pageColour = null;
+        GlyphAtlas.Page page = null;
+        for (int column = fromX; column < toX; column++) {
+            final int x = originX + column;
+            if (!grid.exists(x, y)) continue;
+
+            final T value = grid.get(x, y);
+            final char character = renderer.glyph(value);
+            if (character == CellRenderer.NO_GLYPH || Character.isWhitespace(character)) continue;
+
+            final Color foreground = renderer.foreground(value);
+            final Color colour = (foreground != null) ? foreground : getForeground();
+            // No colour to draw with until the canvas has a parent to inherit a foreground from.
+            if (colour == null) continue;
+            if (!colour.equals(pageColour)) {
+                page = GlyphAtlas.shared().page(g, getFont(), colour);
+                pageColour = colour;
+            }
+            page.draw(g, character, column * cellSize.width, pixelY);
+        }
+    }
+
+    private Color backgroundAt(int x, int y) {
+        return grid.exists(x, y) ? renderer.background(grid.get(x, y)) : null;
+    }
+
+
+
+    /**
+     * Decides how a value is drawn. Called for every visible cell on every paint, so it shouldn't allocate.
+     */
+    public interface CellRenderer<T> {
+        char NO_GLYPH = '\0';
+
+        /**
+         * The character drawn in the cell, or {@link #NO_GLYPH} to draw only the background.
+         */
+        char glyph(T value);
+
+        /**
+         * Null to use the canvas' foreground.
+         */
+        default Color foreground(T value) {
+            return null;
+        }
+
+        /**
+         * Null to leave the cell transparent.
+         */
+        default Color background(T value) {
+            return null;
+        }
+    }
+
+}
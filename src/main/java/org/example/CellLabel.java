@@ -3,7 +3,6 @@ package org.example;
 import javax.swing.JPanel;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 
 public class CellLabel extends JPanel {
@@ -45,13 +44,19 @@ public class CellLabel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        final FontMetrics fontMetrics = g.getFontMetrics();
-        final Dimension cellSize = CellLayout.cellSize(fontMetrics);
-        final int descent = fontMetrics.getDescent();
+        final GlyphAtlas.Page page = GlyphAtlas.shared().page(g, getFont(), getForeground());
+        final Dimension cellSize = page.cellSize();
 
         for (int i = 0; i < text.length; i++) {
-            final int height = (cellSize.height * (i + 1)) - descent;
-            g.drawString(text[i], 0, height);
+            final String line = text[i];
+            final int y = cellSize.height * i;
+            int x = 0;
+            for (int j = 0; j < line.length(); ) {
+                final int codePoint = line.codePointAt(j);
+                if (!Character.isWhitespace(codePoint)) page.draw(g, codePoint, x, y);
+                x += cellSize.width;
+                j += Character.charCount(codePoint);
+            }
         }
     }
 
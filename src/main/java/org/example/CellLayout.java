@@ -14,14 +14,56 @@ import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Insets;
 import java.awt.LayoutManager2;
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
 
 @Slf4j
 public class CellLayout implements LayoutManager2 {
 
-    private final LinkedHashSet<CompRef> componentSet = new LinkedHashSet<>();
+    /**
+     * Side, in cells, of the square buckets of the spatial index.
+     */
+    private static final int BUCKET_BITS = 4;
+
+    private final Map<Component, CompRef> components = new IdentityHashMap<>();
+    /**
+     * Multisets of where each component ends, so the largest is always at hand and removal is O(log n).
+     */
+    private final TreeMap<Integer, Integer> xEnds = new TreeMap<>();
+    private final TreeMap<Integer, Integer> yEnds = new TreeMap<>();
+    /**
+     * Cell-space index of the components with a fixed position and size, bucketed by {@link #BUCKET_BITS}.
+     */
+    private final LongObjectMap<List<CompRef>> buckets = new LongObjectMap<>();
+    /**
+     * Components positioned or sized relative to the container, they can't be bucketed as they move on resize.
+     */
+    private final Set<CompRef> floating = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Components whose bounds need setting on the next layout pass, regardless of what else changed.
+     */
+    private final Set<CompRef> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+
     private int cellWidth;
     private int cellHeight;
+    private int lastWidthCells;
+    private int lastHeightCells;
+    /**
+     * Null until the first layout pass. Compared by value as containers may hand out a fresh object each time.
+     */
+    private Insets lastInsets;
+    /**
+     * Set when every component has to be placed again, by a cell size change or before the first pass.
+     */
+    private boolean allDirty = true;
+    private int skippedLastPass;
+    private long skippedTotal;
 
 
 
@@ -49,15 +91,19 @@ public class CellLayout implements LayoutManager2 {
         final Constraints constraints = new Constraints();
         constraints.id = name;
 
-        componentSet.add(new CompRef(comp, constraints));
+        register(comp, constraints);
     }
 
+    /**
+     * The constraints are copied, as {@link java.awt.GridBagLayout} does, so later changes to the passed object have no
+     * effect. Use {@link #setConstraints(Component, Constraints)} to change them.
+     */
     @Override
     public void addLayoutComponent(Component comp, Object constraints) {
         if (constraints instanceof Constraints straits) {
-            componentSet.add(new CompRef(comp, straits));
+            register(comp, copyOf(straits));
         } else if (constraints == null) {
-            componentSet.add(new CompRef(comp, new Constraints()));
+            register(comp, new Constraints());
         } else {
             throw new RuntimeException("Incorrect constraint type. " + constraints.getClass().getName());
         }
@@ -65,55 +111,23 @@ public class CellLayout implements LayoutManager2 {
 
     @Override
     public void removeLayoutComponent(Component comp) {
-        componentSet.removeIf(compRef -> compRef.component.equals(comp));
+        final CompRef removed = components.remove(comp);
+        if (removed != null) unindex(removed);
     }
 
     @Override
     public Dimension minimumLayoutSize(Container parent) {
-        int maxX = 0;
-        int maxY = 0;
-        for (CompRef compRef : componentSet) {
-            final Constraints constraints = compRef.constraints;
-            maxX = Math.max(maxX, constraints.xStart + constraints.width);
-            maxY = Math.max(maxY, constraints.yStart + constraints.height);
-        }
-
-        final Insets insets = parent.getInsets();
-        final int xSize = (cellWidth * maxX) + insets.left + insets.right;
-        final int ySize = (cellHeight * maxY) + insets.top + insets.bottom;
-        return new Dimension(xSize, ySize);
+        return layoutSize(parent);
     }
 
     @Override
     public Dimension preferredLayoutSize(Container parent) {
-        int maxX = 0;
-        int maxY = 0;
-        for (CompRef compRef : componentSet) {
-            final Constraints constraints = compRef.constraints;
-            maxX = Math.max(maxX, constraints.xStart + constraints.width);
-            maxY = Math.max(maxY, constraints.yStart + constraints.height);
-        }
-
-        final Insets insets = parent.getInsets();
-        final int xSize = (cellWidth * maxX) + insets.left + insets.right;
-        final int ySize = (cellHeight * maxY) + insets.top + insets.bottom;
-        return new Dimension(xSize, ySize);
+        return layoutSize(parent);
     }
 
     @Override
     public Dimension maximumLayoutSize(Container target) {
-        int maxX = 0;
-        int maxY = 0;
-        for (CompRef compRef : componentSet) {
-            final Constraints constraints = compRef.constraints;
-            maxX = Math.max(maxX, constraints.xStart + constraints.width);
-            maxY = Math.max(maxY, constraints.yStart + constraints.height);
-        }
-
-        final Insets insets = target.getInsets();
-        final int xSize = (cellWidth * maxX) + insets.left + insets.right;
-        final int ySize = (cellHeight * maxY) + insets.top + insets.bottom;
-        return new Dimension(xSize, ySize);
+        return layoutSize(target);
     }
 
     @Override
@@ -133,7 +147,46 @@ public class CellLayout implements LayoutManager2 {
 
     @Override
     public void invalidateLayout(Container target) {
-        // NOTE(Max): We don't currently catch anything.
+        // Nothing to drop, the extents, index and dirty set are kept up to date as components and constraints change.
+    }
+
+    /**
+     * A copy of the constraints {@code comp} was added with, or null if it isn't laid out by this.
+     */
+    public Constraints getConstraints(Component comp) {
+        final CompRef compRef = components.get(comp);
+        return (compRef != null) ? copyOf(compRef.constraints) : null;
+    }
+
+    public void setConstraints(Component comp, Constraints constraints) {
+        if (!components.containsKey(comp)) {
+            throw new IllegalArgumentException(String.format(
+                    "Component isn't laid out by this layout. [Component=%s]", comp
+            ));
+        }
+        register(comp, copyOf(constraints));
+    }
+
+    /**
+     * The components covering cell (x, y), in no particular order. Components sized relative to the container are
+     * placed as they were at the last layout.
+     */
+    public List<Component> componentsAt(int x, int y) {
+        final List<Component> found = new ArrayList<>();
+
+        final List<CompRef> bucket = buckets.get(bucketKey(x >> BUCKET_BITS, y >> BUCKET_BITS));
+        if (bucket != null) {
+            for (CompRef compRef : bucket) {
+                if (compRef.cells.contains(x, y)) found.add(compRef.component);
+            }
+        }
+
+        for (CompRef compRef : floating) {
+            if (size(lastWidthCells, lastHeightCells, compRef.constraints).contains(x, y)) {
+                found.add(compRef.component);
+            }
+        }
+        return found;
     }
 
     public Dimension getCellSize() {
@@ -141,33 +194,179 @@ public class CellLayout implements LayoutManager2 {
     }
 
     public void setCellSize(Dimension cellSize) {
+        if (cellSize.width != cellWidth || cellSize.height != cellHeight) allDirty = true;
         this.cellWidth = cellSize.width;
         this.cellHeight = cellSize.height;
     }
 
+    /**
+     * How many components the last layout pass left alone because their bounds couldn't have changed.
+     */
+    public int getSkippedLastPass() {
+        return skippedLastPass;
+    }
+
+    /**
+     * Running total of {@link #getSkippedLastPass()} over every layout pass.
+     */
+    public long getSkippedTotal() {
+        return skippedTotal;
+    }
+
 
 
+    /**
+     * Only places the components whose bounds may have moved. That is those with new constraints, those sized relative
+     * to the container when its size in cells changed, and all of them when the cell size or insets changed. Bounds
+     * set on a component by anything other than this layout are not noticed.
+     */
     private void doTheThing(Container parent) {
         final Insets insets = parent.getInsets();
         final Dimension size = parent.getSize();
         final int widthCells = (size.width - (insets.left + insets.right)) / cellWidth;
         final int heightCells = (size.height - (insets.top + insets.bottom)) / cellHeight;
 
-        for (CompRef compRef : componentSet) {
-            final Constraints constraints = compRef.constraints();
-            if (!validate(constraints)) continue;
+        final boolean everything = allDirty || !insets.equals(lastInsets);
+        final boolean resized = widthCells != lastWidthCells || heightCells != lastHeightCells;
+        lastWidthCells = widthCells;
+        lastHeightCells = heightCells;
+        lastInsets = (Insets) insets.clone();
+
+        int placed = 0;
+        if (everything) {
+            for (CompRef compRef : components.values()) {
+                if (place(compRef, widthCells, heightCells, insets)) placed++;
+            }
+        } else {
+            for (CompRef compRef : dirty) {
+                if (place(compRef, widthCells, heightCells, insets)) placed++;
+            }
+            if (resized) {
+                for (CompRef compRef : floating) {
+                    // Already placed above if it was also dirty.
+                    if (!dirty.contains(compRef) && place(compRef, widthCells, heightCells, insets)) placed++;
+                }
+            }
+        }
+        dirty.clear();
+        allDirty = false;
+
+        skippedLastPass = components.size() - placed;
+        skippedTotal += skippedLastPass;
+    }
+
+    /**
+     * @return if setBounds was called, components with invalid constraints are left where they are.
+     */
+    private boolean place(CompRef compRef, int widthCells, int heightCells, Insets insets) {
+        final Constraints constraints = compRef.constraints();
+        if (!validate(constraints)) return false;
+
+        final Rec sizeInCells = size(widthCells, heightCells, constraints);
+
+        final int startPixelX = (sizeInCells.x * cellWidth) + insets.left;
+        final int startPixelY = (sizeInCells.y * cellHeight) + insets.top;
+        final int widthPixels = sizeInCells.width * cellWidth;
+        final int heightPixels = sizeInCells.height * cellHeight;
+
+        compRef.component.setBounds(startPixelX, startPixelY, widthPixels, heightPixels);
+        return true;
+    }
+
+    private Dimension layoutSize(Container parent) {
+        final int maxX = xEnds.isEmpty() ? 0 : Math.max(0, xEnds.lastKey());
+        final int maxY = yEnds.isEmpty() ? 0 : Math.max(0, yEnds.lastKey());
+
+        final Insets insets = parent.getInsets();
+        final int xSize = (cellWidth * maxX) + insets.left + insets.right;
+        final int ySize = (cellHeight * maxY) + insets.top + insets.bottom;
+        return new Dimension(xSize, ySize);
+    }
+
+    /**
+     * Adds or replaces the component's entry, keeping the extents and the spatial index in step.
+     */
+    private void register(Component comp, Constraints constraints) {
+        final CompRef previous = components.get(comp);
+        if (previous != null) unindex(previous);
+
+        final Rec cells = isFixed(constraints) ? size(0, 0, constraints) : null;
+        final CompRef compRef = new CompRef(comp, constraints, cells);
+        components.put(comp, compRef);
+        index(compRef);
+        dirty.add(compRef);
+    }
+
+    private void index(CompRef compRef) {
+        final Constraints constraints = compRef.constraints;
+        xEnds.merge(constraints.xStart + constraints.width, 1, Integer::sum);
+        yEnds.merge(constraints.yStart + constraints.height, 1, Integer::sum);
+
+        if (compRef.cells == null) {
+            floating.add(compRef);
+            return;
+        }
+        forEachBucket(compRef.cells, key -> {
+            List<CompRef> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new ArrayList<>(2);
+                buckets.put(key, bucket);
+            }
+            bucket.add(compRef);
+        });
+    }
 
-            final Rec sizeInCells = size(widthCells, heightCells, constraints);
+    private void unindex(CompRef compRef) {
+        dirty.remove(compRef);
+        final Constraints constraints = compRef.constraints;
+        decrement(xEnds, constraints.xStart + constraints.width);
+        decrement(yEnds, constraints.yStart + constraints.height);
 
-            final int startPixelX = (sizeInCells.x * cellWidth) + insets.left;
-            final int startPixelY = (sizeInCells.y * cellHeight) + insets.top;
-            final int widthPixels = sizeInCells.width * cellWidth;
-            final int heightPixels = sizeInCells.height * cellHeight;
+        if (compRef.cells == null) {
+            floating.remove(compRef);
+            return;
+        }
+        forEachBucket(compRef.cells, key -> {
+            final List<CompRef> bucket = buckets.get(key);
+            if (bucket == null) return;
+            bucket.remove(compRef);
+            if (bucket.isEmpty()) buckets.remove(key);
+        });
+    }
 
-            compRef.component.setBounds(startPixelX, startPixelY, widthPixels, heightPixels);
+    private static void forEachBucket(Rec cells, LongConsumer action) {
+        if (cells.width <= 0 || cells.height <= 0) return;
+        final int lastX = (cells.x + cells.width - 1) >> BUCKET_BITS;
+        final int lastY = (cells.y + cells.height - 1) >> BUCKET_BITS;
+        for (int bucketY = cells.y >> BUCKET_BITS; bucketY <= lastY; bucketY++) {
+            for (int bucketX = cells.x >> BUCKET_BITS; bucketX <= lastX; bucketX++) {
+                action.accept(bucketKey(bucketX, bucketY));
+            }
         }
     }
 
+    private static long bucketKey(int bucketX, int bucketY) {
+        return Grid.Cursor.pack(bucketX, bucketY);
+    }
+
+    private static void decrement(TreeMap<Integer, Integer> multiset, int key) {
+        multiset.computeIfPresent(key, (unused, count) -> (count == 1) ? null : count - 1);
+    }
+
+    /**
+     * Whether the constraints place the component independently of the container's size.
+     */
+    private static boolean isFixed(Constraints usage) {
+        return usage.xStart != -1 && usage.yStart != -1 && usage.width != -1 && usage.height != -1;
+    }
+
+    private static Constraints copyOf(Constraints usage) {
+        return new Constraints(
+                usage.id, usage.xStart, usage.yStart, usage.xOffset, usage.yOffset,
+                usage.width, usage.height, usage.xRatio, usage.yRatio
+        );
+    }
+
     private boolean validate(Constraints usage) {
         if (usage.xStart == -1 && usage.xOffset == -1) {
             log.error("Missing x start component of. {}", usage);
@@ -192,7 +391,7 @@ public class CellLayout implements LayoutManager2 {
         return true;
     }
 
-    private Rec size(int width, int height, Constraints usage) {
+    private static Rec size(int width, int height, Constraints usage) {
         final int xStart = (usage.xStart != -1) ? usage.xStart : (int) (width * usage.xOffset);
         final int yStart = (usage.yStart != -1) ? usage.yStart : (int) (height * usage.yOffset);
         final int width_ = (usage.width != -1) ? usage.width : (int) (width * usage.xRatio);
@@ -264,8 +463,26 @@ public class CellLayout implements LayoutManager2 {
         private float yRatio = -1;
     }
 
-    private record CompRef(Component component, Constraints constraints) { }
+    /**
+     * @param cells where a fixed component sits, in cells, or null if it is sized relative to the container.
+     */
+    private record CompRef(Component component, Constraints constraints, Rec cells) {
+        // Identity semantics, so removing an entry from a bucket never takes another with equal constraints.
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
 
-    private record Rec(int x, int y, int width, int height) { }
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    private record Rec(int x, int y, int width, int height) {
+        boolean contains(int cellX, int cellY) {
+            return cellX >= x && cellY >= y && cellX < x + width && cellY < y + height;
+        }
+    }
 
 }
@@ -0,0 +1,34 @@
+package org.example;
+
+/**
+ * Chunked grid of references, see {@link AbstractChunkedGrid}. Cells in allocated chunks start as null.
+ */
+public class ChunkedGrid<T> extends AbstractChunkedGrid<T, Object[]> {
+
+    public ChunkedGrid() {
+        this(DEFAULT_CHUNK_BITS);
+    }
+
+    public ChunkedGrid(int chunkBits) {
+        super(chunkBits);
+    }
+
+
+
+    @Override
+    protected Object[] newChunk(int area) {
+        return new Object[area];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T getAt(Object[] chunk, int index) {
+        return (T) chunk[index];
+    }
+
+    @Override
+    protected void setAt(Object[] chunk, int index, T value) {
+        chunk[index] = value;
+    }
+
+}
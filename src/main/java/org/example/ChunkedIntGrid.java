@@ -0,0 +1,46 @@
+package org.example;
+
+/**
+ * Chunked grid of {@code int}s, see {@link AbstractChunkedGrid}. Each chunk is one {@code int[]}, cells start as zero.
+ * Use {@link #getInt(int, int)} and {@link #setInt(int, int, int)} on hot paths, the {@link Grid} accessors box.
+ */
+public class ChunkedIntGrid extends AbstractChunkedGrid<Integer, int[]> {
+
+    public ChunkedIntGrid() {
+        this(DEFAULT_CHUNK_BITS);
+    }
+
+    public ChunkedIntGrid(int chunkBits) {
+        super(chunkBits);
+    }
+
+
+
+    /**
+     * Cells in unallocated chunks read as zero.
+     */
+    public int getInt(int x, int y) {
+        final int[] chunk = chunk(x, y);
+        return (chunk != null) ? chunk[localIndex(x, y)] : 0;
+    }
+
+    public void setInt(int x, int y, int value) {
+        chunkForWrite(x, y)[localIndex(x, y)] = value;
+    }
+
+    @Override
+    protected int[] newChunk(int area) {
+        return new int[area];
+    }
+
+    @Override
+    protected Integer getAt(int[] chunk, int index) {
+        return chunk[index];
+    }
+
+    @Override
+    protected void setAt(int[] chunk, int index, Integer value) {
+        chunk[index] = value;
+    }
+
+}
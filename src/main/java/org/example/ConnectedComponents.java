@@ -0,0 +1,346 @@
+package org.example;
+
+import org.example.Grid.Rect;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Connected-component labelling and flood fill over any {@link Grid}. Two neighbouring cells are connected when the
+ * caller's {@link Equivalence} says so, neighbours being the four or eight surrounding cells by {@link Connectivity}.
+ * <p>
+ * Labelling splits the grid into bands of rows. Each band is labelled on its own on a {@link ForkJoinPool}, then the
+ * bands are joined along their borders, both through a single lock-free union-find in which every root links to the
+ * smaller of the two. The root of every component is therefore its first cell in row-major order, which makes the
+ * compact labels written out at the end deterministic no matter how the work was split.
+ */
+public final class ConnectedComponents {
+
+    /**
+     * Bands hold at least this many cells, so small grids aren't split into more tasks than they are worth.
+     */
+    private static final int MIN_BAND_CELLS = 1 << 16;
+
+
+
+    private ConnectedComponents() { }
+
+
+
+    public static <T> Labels label(Grid<T> grid, Connectivity connectivity, Equivalence<? super T> equivalence) {
+        return label(grid, connectivity, equivalence, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Labels every cell of {@code grid} with its component, numbered from 1 in the row-major order of each
+     * component's first cell. The label grid covers {@link Grid#bounds()}, with the bounds' top left at (0, 0), and
+     * cells that don't exist are labelled 0.
+     * <p>
+     * {@code grid} is read from several threads at once, so mustn't be modified until this returns.
+     */
+    public static <T> Labels label(
+            Grid<T> grid, Connectivity connectivity, Equivalence<? super T> equivalence, ForkJoinPool pool
+    ) {
+        final Rect bounds = grid.bounds();
+        final int width = bounds.width();
+        final int height = bounds.height();
+        final Labeller<T> labeller = new Labeller<>(grid, bounds, connectivity, equivalence);
+
+        final int bandHeight = Math.max(1, MIN_BAND_CELLS / Math.max(1, width));
+        final int bands = (height + bandHeight - 1) / bandHeight;
+
+        // Union within each band, then along the top edge of every band but the first.
+        forEachBand(pool, bands, band -> labeller.unionRows(
+                band * bandHeight, Math.min(height, (band + 1) * bandHeight), false
+        ));
+        forEachBand(pool, bands, band -> {
+            if (band > 0) labeller.unionRows(band * bandHeight, band * bandHeight + 1, true);
+        });
+
+        // Number the roots band by band, offsetting each band by the roots in the bands before it.
+        final int[] rootsPerBand = new int[bands];
+        forEachBand(pool, bands, band -> rootsPerBand[band] = labeller.countRoots(
+                band * bandHeight, Math.min(height, (band + 1) * bandHeight)
+        ));
+        final int[] firstLabel = new int[bands];
+        int count = 0;
+        for (int band = 0; band < bands; band++) {
+            firstLabel[band] = count + 1;
+            count += rootsPerBand[band];
+        }
+        forEachBand(pool, bands, band -> labeller.labelRoots(
+                band * bandHeight, Math.min(height, (band + 1) * bandHeight), firstLabel[band]
+        ));
+        forEachBand(pool, bands, band -> labeller.labelOthers(
+                band * bandHeight, Math.min(height, (band + 1) * bandHeight)
+        ));
+
+        return new Labels(IntGrid.noCopy(width, height, labeller.labels), count);
+    }
+
+    /**
+     * Replaces the cell at (x, y) and every cell reachable from it through neighbours equivalent to its original
+     * value. Unlike {@link #label}, each neighbour is compared with the starting value rather than the cell it was
+     * reached from.
+     *
+     * @return the number of cells replaced.
+     */
+    public static <T> int floodFill(
+            MutableGrid<T> grid, int x, int y, T replacement,
+            Connectivity connectivity, Equivalence<? super T> equivalence
+    ) {
+        if (!grid.exists(x, y)) {
+            throw new IndexOutOfBoundsException(String.format("Cell isn't in the grid. [X=%d, Y=%d]", x, y));
+        }
+
+        final Rect bounds = grid.bounds();
+        final int width = bounds.width();
+        final int cells = Math.multiplyExact(width, bounds.height());
+        final long[] visited = new long[(cells + 63) >>> 6];
+        final Stencil stencil = connectivity.stencil;
+        final T original = grid.get(x, y);
+
+        // Each cell is queued at most once, as it is marked visited when queued.
+        int[] queue = new int[Math.min(cells, 1024)];
+        int head = 0;
+        int tail = 0;
+        final int start = ((y - bounds.y()) * width) + (x - bounds.x());
+        queue[tail++] = start;
+        visited[start >>> 6] |= 1L << start;
+
+        int filled = 0;
+        while (head < tail) {
+            final int current = queue[head++];
+            final int currentX = bounds.x() + (current % width);
+            final int currentY = bounds.y() + (current / width);
+            grid.set(currentX, currentY, replacement);
+            filled++;
+
+            for (int i = 0; i < stencil.size(); i++) {
+                final int nextX = currentX + stencil.dx(i);
+                final int nextY = currentY + stencil.dy(i);
+                if (!bounds.contains(nextX, nextY) || !grid.exists(nextX, nextY)) continue;
+
+                final int next = ((nextY - bounds.y()) * width) + (nextX - bounds.x());
+                if ((visited[next >>> 6] & (1L << next)) != 0) continue;
+                if (!equivalence.connected(original, grid.get(nextX, nextY))) continue;
+
+                visited[next >>> 6] |= 1L << next;
+                if (tail == queue.length) {
+                    // Slide the live part down before growing, the queue only ever needs the unvisited frontier.
+                    System.arraycopy(queue, head, queue, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                    if (tail == queue.length) queue = Arrays.copyOf(queue, Math.min(cells, queue.length * 2));
+                }
+                queue[tail++] = next;
+            }
+        }
+        return filled;
+    }
+
+
+
+    private static void forEachBand(ForkJoinPool pool, int bands, IntConsumer action) {
+        if (bands > 0) pool.invoke(new BandAction(0, bands, action));
+    }
+
+
+
+    /**
+     * @param labels component of each cell, 1 to {@code count}, 0 where the grid has no cell.
+     */
+    public record Labels(IntGrid labels, int count) { }
+
+    public enum Connectivity {
+        /**
+         * North, south, east and west.
+         */
+        FOUR(Stencil.vonNeumann()),
+        /**
+         * The diagonals as well.
+         */
+        EIGHT(Stencil.moore());
+
+        Connectivity(Stencil stencil) {
+            this.stencil = stencil;
+        }
+
+        private final Stencil stencil;
+
+        public Stencil stencil() {
+            return stencil;
+        }
+    }
+
+    /**
+     * Whether two neighbouring values belong to the same component. Should be symmetric, and is called from several
+     * threads at once when labelling.
+     */
+    @FunctionalInterface
+    public interface Equivalence<T> {
+        boolean connected(T a, T b);
+    }
+
+
+
+    /**
+     * The union-find and label state of one {@link #label} call.
+     */
+    private static final class Labeller<T> {
+
+        private static final int MISSING = -1;
+
+        private final Grid<T> grid;
+        private final Rect bounds;
+        private final int width;
+        private final boolean diagonals;
+        private final Equivalence<? super T> equivalence;
+        private final AtomicIntegerArray parent;
+        private final int[] labels;
+
+
+
+        private Labeller(Grid<T> grid, Rect bounds, Connectivity connectivity, Equivalence<? super T> equivalence) {
+            this.grid = grid;
+            this.bounds = bounds;
+            this.width = bounds.width();
+            this.diagonals = connectivity == Connectivity.EIGHT;
+            this.equivalence = equivalence;
+
+            final int cells = Math.multiplyExact(width, bounds.height());
+            this.parent = new AtomicIntegerArray(cells);
+            this.labels = new int[cells];
+        }
+
+
+
+        /**
+         * Joins each cell of rows [from, to) with its neighbours west and north, plus north west and north east for
+         * eight way connectivity. Neighbours above {@code from} are only looked at when {@code acrossTop} is set, so
+         * bands can be labelled independently and stitched together afterwards.
+         */
+        void unionRows(int from, int to, boolean acrossTop) {
+            for (int row = from; row < to; row++) {
+                final boolean north = row > from || (acrossTop && row > 0);
+                for (int column = 0; column < width; column++) {
+                    final int index = (row * width) + column;
+                    final int x = bounds.x() + column;
+                    final int y = bounds.y() + row;
+                    if (!acrossTop) parent.set(index, grid.exists(x, y) ? index : MISSING);
+                    if (parent.get(index) == MISSING) continue;
+
+                    final T value = grid.get(x, y);
+                    if (!acrossTop && column > 0) join(index, index - 1, value, x - 1, y);
+                    if (!north) continue;
+                    join(index, index - width, value, x, y - 1);
+                    if (!diagonals) continue;
+                    if (column > 0) join(index, index - width - 1, value, x - 1, y - 1);
+                    if (column < width - 1) join(index, index - width + 1, value, x + 1, y - 1);
+                }
+            }
+        }
+
+        int countRoots(int from, int to) {
+            int roots = 0;
+            for (int index = from * width; index < to * width; index++) {
+                if (parent.get(index) == index) roots++;
+            }
+            return roots;
+        }
+
+        void labelRoots(int from, int to, int firstLabel) {
+            int label = firstLabel;
+            for (int index = from * width; index < to * width; index++) {
+                if (parent.get(index) == index) labels[index] = label++;
+            }
+        }
+
+        /**
+         * Roots are labelled by now, and as every root comes before the rest of its component no other band can be
+         * writing the label read here.
+         */
+        void labelOthers(int from, int to) {
+            for (int index = from * width; index < to * width; index++) {
+                final int parentIndex = parent.get(index);
+                if (parentIndex == MISSING || parentIndex == index) continue;
+                labels[index] = labels[find(index)];
+            }
+        }
+
+
+
+        private void join(int index, int neighbour, T value, int neighbourX, int neighbourY) {
+            if (parent.get(neighbour) == MISSING) return;
+            if (!equivalence.connected(value, grid.get(neighbourX, neighbourY))) return;
+            union(index, neighbour);
+        }
+
+        /**
+         * Path halving, racing threads can only ever shorten a path so a failed compare-and-set is harmless.
+         */
+        private int find(int index) {
+            int current = index;
+            while (true) {
+                final int next = parent.get(current);
+                if (next == current) return current;
+                final int grandparent = parent.get(next);
+                if (grandparent != next) parent.compareAndSet(current, next, grandparent);
+                current = next;
+            }
+        }
+
+        /**
+         * Links the larger root under the smaller. The compare-and-set only succeeds while the larger is still a root,
+         * otherwise another thread got there first and the roots are looked up again.
+         */
+        private void union(int a, int b) {
+            while (true) {
+                final int rootA = find(a);
+                final int rootB = find(b);
+                if (rootA == rootB) return;
+
+                final int larger = Math.max(rootA, rootB);
+                final int smaller = Math.min(rootA, rootB);
+                if (parent.compareAndSet(larger, larger, smaller)) return;
+            }
+        }
+
+    }
+
+    /**
+     * Runs an action for each band in [from, to), split in halves down to single bands.
+     */
+    private static final class BandAction extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+
+
+        private BandAction(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+
+            final int middle = from + ((to - from) / 2);
+            invokeAll(new BandAction(from, middle, action), new BandAction(middle, to, action));
+        }
+
+    }
+
+}
@@ -0,0 +1,197 @@
+package org.example;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of rasterised glyphs, so cells can be painted by copying from an image rather than shaping and rasterising
+ * text on every repaint. Glyphs are kept in {@link Page}s, one per font (so also size), colour and display scale, and
+ * each glyph is drawn into its page the first time it is asked for. Pages past {@link #maxPages()} are evicted least
+ * recently used first, so zooming through font sizes doesn't grow the cache forever.
+ * <p>
+ * Every glyph gets one {@link CellLayout#cellSize(FontMetrics)} slot, anything wider, as in a proportional font, is
+ * clipped. Not thread safe, like the rest of Swing it is meant to be used from the event dispatch thread.
+ */
+public final class GlyphAtlas {
+
+    private static final int DEFAULT_MAX_PAGES = 64;
+    private static final GlyphAtlas SHARED = new GlyphAtlas(DEFAULT_MAX_PAGES);
+
+    private final int maxPages;
+    private final LinkedHashMap<PageKey, Page> pages;
+
+
+
+    public GlyphAtlas(int maxPages) {
+        if (maxPages < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Atlas needs room for at least one page. [MaxPages=%d]", maxPages
+            ));
+        }
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, Page> eldest) {
+                return size() > GlyphAtlas.this.maxPages;
+            }
+        };
+    }
+
+    /**
+     * The atlas shared by the cell components.
+     */
+    public static GlyphAtlas shared() {
+        return SHARED;
+    }
+
+
+
+    public int maxPages() {
+        return maxPages;
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+
+    /**
+     * The page for glyphs in {@code font} and {@code colour}, rasterised for the scale {@code g} draws at. Look a page
+     * up once per paint or colour change, not per glyph.
+     */
+    public Page page(Graphics g, Font font, Color colour) {
+        final double scale = (g instanceof Graphics2D g2) ? g2.getTransform().getScaleX() : 1;
+        return pages.computeIfAbsent(new PageKey(font, colour.getRGB(), scale), Page::new);
+    }
+
+
+
+    private record PageKey(Font font, int argb, double scale) { }
+
+
+
+    /**
+     * Glyphs of one font and colour, laid out in a grid of cell sized slots on a single image that grows as glyphs are
+     * added.
+     */
+    public static final class Page {
+
+        private static final int SLOTS_PER_ROW = 32;
+        private static final int BLOCK_BITS = 8;
+
+        private final PageKey key;
+        private final Dimension cellSize;
+        private final int ascent;
+        private final int slotWidth;
+        private final int slotHeight;
+        /**
+         * Slot + 1 for each code point drawn so far, 0 if not yet drawn. Split in blocks so a page for a handful of
+         * box-drawing characters doesn't need a table covering all of Unicode.
+         */
+        private final int[][] slots = new int[(Character.MAX_CODE_POINT >> BLOCK_BITS) + 1][];
+        private BufferedImage image;
+        private int used;
+
+
+
+        private Page(PageKey key) {
+            this.key = key;
+            final Graphics2D scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+            final FontMetrics fontMetrics = scratch.getFontMetrics(key.font);
+            scratch.dispose();
+
+            this.cellSize = CellLayout.cellSize(fontMetrics);
+            this.ascent = fontMetrics.getAscent();
+            this.slotWidth = Math.max(1, (int) Math.ceil(cellSize.width * key.scale));
+            this.slotHeight = Math.max(1, (int) Math.ceil(cellSize.height * key.scale));
+            this.image = new BufferedImage(SLOTS_PER_ROW * slotWidth, slotHeight, BufferedImage.TYPE_INT_ARGB);
+        }
+
+
+
+        public Dimension cellSize() {
+            return new Dimension(cellSize);
+        }
+
+        public int glyphCount() {
+            return used;
+        }
+
+        /**
+         * Draws {@code codePoint} into the cell whose top left corner is at (x, y).
+         */
+        public void draw(Graphics g, int codePoint, int x, int y) {
+            final int slot = slotOf(codePoint);
+            final int sourceX = (slot % SLOTS_PER_ROW) * slotWidth;
+            final int sourceY = (slot / SLOTS_PER_ROW) * slotHeight;
+            g.drawImage(
+                    image,
+                    x, y, x + cellSize.width, y + cellSize.height,
+                    sourceX, sourceY, sourceX + slotWidth, sourceY + slotHeight,
+                    null
+            );
+        }
+
+
+
+        private int slotOf(int codePoint) {
+            int[] block = slots[codePoint >> BLOCK_BITS];
+            if (block == null) {
+                block = new int[1 << BLOCK_BITS];
+                slots[codePoint >> BLOCK_BITS] = block;
+            }
+
+            final int within = codePoint & ((1 << BLOCK_BITS) - 1);
+            if (block[within] == 0) block[within] = rasterise(codePoint) + 1;
+            return block[within] - 1;
+        }
+
+        private int rasterise(int codePoint) {
+            final int slot = used++;
+            final int rows = (slot / SLOTS_PER_ROW) + 1;
+            if (rows * slotHeight > image.getHeight()) grow(rows * 2);
+
+            final int sourceX = (slot % SLOTS_PER_ROW) * slotWidth;
+            final int sourceY = (slot / SLOTS_PER_ROW) * slotHeight;
+            final Graphics2D g = image.createGraphics();
+            try {
+                g.setClip(sourceX, sourceY, slotWidth, slotHeight);
+                g.translate(sourceX, sourceY);
+                g.scale(key.scale, key.scale);
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                g.setFont(key.font);
+                g.setColor(new Color(key.argb, true));
+                g.drawString(Character.toString(codePoint), 0, ascent);
+            } finally {
+                g.dispose();
+            }
+            return slot;
+        }
+
+        private void grow(int rows) {
+            final BufferedImage grown = new BufferedImage(image.getWidth(), rows * slotHeight, image.getType());
+            final Graphics2D g = grown.createGraphics();
+            try {
+                g.setComposite(AlphaComposite.Src);
+                g.drawImage(image, 0, 0, null);
+            } finally {
+                g.dispose();
+            }
+            image = grown;
+        }
+
+    }
+
+}
@@ -1,7 +1,9 @@
 package org.example;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -10,14 +12,14 @@ import java.util.stream.StreamSupport;
 
 public interface Grid<T> extends Collection<T> {
 
-    Pattern NORTH      = CardanlPattern.NORTH;
-    Pattern SOUTH      = CardanlPattern.SOUTH;
-    Pattern EAST       = CardanlPattern.EAST;
-    Pattern WEST       = CardanlPattern.WEST;
-    Pattern NORTH_EAST = CardanlPattern.NORTH_EAST;
-    Pattern NORTH_WEST = CardanlPattern.NORTH_WEST;
-    Pattern SOUTH_EAST = CardanlPattern.SOUTH_EAST;
-    Pattern SOUTH_WEST = CardanlPattern.SOUTH_WEST;
+    LinearPattern NORTH      = CardanlPattern.NORTH;
+    LinearPattern SOUTH      = CardanlPattern.SOUTH;
+    LinearPattern EAST       = CardanlPattern.EAST;
+    LinearPattern WEST       = CardanlPattern.WEST;
+    LinearPattern NORTH_EAST = CardanlPattern.NORTH_EAST;
+    LinearPattern NORTH_WEST = CardanlPattern.NORTH_WEST;
+    LinearPattern SOUTH_EAST = CardanlPattern.SOUTH_EAST;
+    LinearPattern SOUTH_WEST = CardanlPattern.SOUTH_WEST;
 
     // =================================================================================================================
     // ==== Basic Accessors ============================================================================================
@@ -42,6 +44,14 @@ public interface Grid<T> extends Collection<T> {
         return exists(position.x, position.y);
     }
 
+    default T get(Cursor cursor) {
+        return get(cursor.x, cursor.y);
+    }
+
+    default boolean exists(Cursor cursor) {
+        return exists(cursor.x, cursor.y);
+    }
+
     default boolean inBounds(int x, int y) {
         return exists(x, y);
     }
@@ -50,6 +60,94 @@ public interface Grid<T> extends Collection<T> {
         return exists(position);
     }
 
+    /**
+     * The smallest rectangle containing every cell that exists. The default walks the whole grid, implementations that
+     * know their shape should override it.
+     */
+    default Rect bounds() {
+        final Sequence<T> sequence = iterator();
+        final Cursor cursor = new Cursor();
+        if (!sequence.nextLocation(cursor)) return Rect.EMPTY;
+
+        int minX = cursor.x;
+        int minY = cursor.y;
+        int maxX = cursor.x;
+        int maxY = cursor.y;
+        while (sequence.nextLocation(cursor)) {
+            minX = Math.min(minX, cursor.x);
+            minY = Math.min(minY, cursor.y);
+            maxX = Math.max(maxX, cursor.x);
+            maxY = Math.max(maxY, cursor.y);
+        }
+        return new Rect(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+
+    // =================================================================================================================
+    // ==== Views ======================================================================================================
+
+    /**
+     * A live view of the {@code width} by {@code height} rectangle whose top left is (x, y). The view has its own
+     * coordinates starting at (0, 0) and shares storage with this grid, cells of the rectangle that don't exist here
+     * don't exist in the view either.
+     */
+    default Grid<T> region(int x, int y, int width, int height) {
+        return new RegionView<>(this, x, y, width, height);
+    }
+
+    default Grid<T> row(int y) {
+        final Rect bounds = bounds();
+        return region(bounds.x, y, bounds.width, 1);
+    }
+
+    default Grid<T> column(int x) {
+        final Rect bounds = bounds();
+        return region(x, bounds.y, 1, bounds.height);
+    }
+
+
+    // =================================================================================================================
+    // ==== Neighbourhoods =============================================================================================
+
+    /**
+     * Visits the cells at each of {@code stencil}'s offsets from (x, y), in stencil order. Offsets landing on cells
+     * that don't exist are skipped, so this is safe to call on the edge of the grid.
+     */
+    default void forEachNeighbour(int x, int y, Stencil stencil, CellVisitor<? super T> visitor) {
+        for (int i = 0; i < stencil.size(); i++) {
+            final int neighbourX = x + stencil.dx(i);
+            final int neighbourY = y + stencil.dy(i);
+            if (exists(neighbourX, neighbourY)) visitor.visit(neighbourX, neighbourY, get(neighbourX, neighbourY));
+        }
+    }
+
+
+    // =================================================================================================================
+    // ==== Rays =======================================================================================================
+
+    /**
+     * Number of cells that exist in a row from (x, y), stepping by the increments, before the first that doesn't. 0 if
+     * (x, y) doesn't exist, and {@link Integer#MAX_VALUE} for a zero step from a cell that does. Iterators and
+     * spliterators over a {@link LinearPattern} use this to find where the ray ends once, rather than checking
+     * {@link #exists(int, int)} on every step. The default does just that, grids that know their shape should clip
+     * the ray against it instead.
+     */
+    default int rayLength(int x, int y, int xIncrement, int yIncrement) {
+        if (!exists(x, y)) return 0;
+        if (xIncrement == 0 && yIncrement == 0) return Integer.MAX_VALUE;
+
+        int length = 1;
+        long nextX = (long) x + xIncrement;
+        long nextY = (long) y + yIncrement;
+        while (length < Integer.MAX_VALUE && nextX == (int) nextX && nextY == (int) nextY
+                && exists((int) nextX, (int) nextY)) {
+            length++;
+            nextX += xIncrement;
+            nextY += yIncrement;
+        }
+        return length;
+    }
+
 
     // =================================================================================================================
     // ==== Iterators ==================================================================================================
@@ -62,6 +160,15 @@ public interface Grid<T> extends Collection<T> {
 
     Sequence<Locatable<T>> locatableIterator(V2 start, Pattern pattern);
 
+    /**
+     * Walks {@link #bounds()} in {@code order}. Like any pattern walk this stops at the first cell that doesn't exist,
+     * use {@link #spliterator(TraversalOrder)} on grids with holes.
+     */
+    default Sequence<T> iterator(TraversalOrder order) {
+        final Rect bounds = bounds();
+        return iterator(order.first(bounds).orElse(null), order.pattern(bounds));
+    }
+
 
     // =================================================================================================================
     // ==== Iterable Helper ============================================================================================
@@ -83,6 +190,35 @@ public interface Grid<T> extends Collection<T> {
     }
 
 
+    // =================================================================================================================
+    // ==== Allocation Free Scans ======================================================================================
+
+    /**
+     * Visits every cell with its location as plain ints, in {@link #iterator()} order. Nothing is allocated per cell.
+     */
+    default void forEachCell(CellVisitor<? super T> visitor) {
+        iterator().forEachRemainingCell(visitor);
+    }
+
+    /**
+     * Like {@link #locatableIterator()}, but every element handed out is the same {@link Flyweight}, overwritten by the
+     * next call to {@code next()} or {@code peek()}. Only read an element before moving on: storing it, collecting it
+     * or comparing it with another element sees whatever cell the sequence is on now.
+     */
+    default Sequence<Locatable<T>> flyweightLocatableIterator() {
+        return new AbstractGrid.FlyweightSequence<>(iterator());
+    }
+
+    /**
+     * Sequential stream over {@link #flyweightLocatableIterator()}, with the same contract. Fine for
+     * {@code forEach}, {@code filter}, {@code map} to something else and reductions that read each element as it
+     * passes. Anything that holds on to elements, such as {@code sorted}, {@code distinct} or collecting them, is not.
+     */
+    default Stream<Locatable<T>> flyweightLocatableStream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(flyweightLocatableIterator(), 0), false);
+    }
+
+
     // =================================================================================================================
     // ==== Spliterators ===============================================================================================
 
@@ -98,6 +234,27 @@ public interface Grid<T> extends Collection<T> {
         return Spliterators.spliteratorUnknownSize(locatableIterator(start, pattern), 0);
     }
 
+    /**
+     * Every cell in {@code order}, splitting into runs of the order for parallel streams. Exactly sized when every
+     * cell in {@link #bounds()} exists.
+     */
+    default Spliterator<T> spliterator(TraversalOrder order) {
+        final Rect bounds = bounds();
+        final boolean dense = size() == bounds.area();
+        return OrderedSpliterator.filtered(order, bounds, this::get, dense ? null : this::exists, 0);
+    }
+
+    default Spliterator<Locatable<T>> locatableSpliterator(TraversalOrder order) {
+        final Rect bounds = bounds();
+        final boolean dense = size() == bounds.area();
+        return OrderedSpliterator.filtered(
+                order, bounds,
+                (x, y) -> new AbstractGrid.LocationPair<>(get(x, y), new V2(x, y)),
+                dense ? null : this::exists,
+                Spliterator.NONNULL
+        );
+    }
+
 
     // =================================================================================================================
     // ==== "Naive" Streams or Whole Collection Streams ================================================================
@@ -107,6 +264,22 @@ public interface Grid<T> extends Collection<T> {
     }
 
 
+    // =================================================================================================================
+    // ==== Traversal Order Streams ====================================================================================
+
+    default Stream<T> stream(TraversalOrder order) {
+        return StreamSupport.stream(spliterator(order), false);
+    }
+
+    default Stream<T> parallelStream(TraversalOrder order) {
+        return StreamSupport.stream(spliterator(order), true);
+    }
+
+    default Stream<Locatable<T>> locatableStream(TraversalOrder order) {
+        return StreamSupport.stream(locatableSpliterator(order), false);
+    }
+
+
     // =================================================================================================================
     // ==== Pattern Navigation Streams =================================================================================
 
@@ -142,13 +315,122 @@ public interface Grid<T> extends Collection<T> {
         );
     }
 
+    /**
+     * Parallel version of {@link #streamAll(Pattern)}. The start cells are listed up front so each ray is independent
+     * and the rays are run on the {@link java.util.concurrent.ForkJoinPool} of the terminal operation, the common pool
+     * unless the stream is consumed from inside another pool. The rays themselves are sequential.
+     */
+    default Stream<Stream<T>> parallelStreamAll(Pattern pattern) {
+        return rayStarts(null).parallelStream().map(start -> stream(start, pattern));
+    }
+
+    default Stream<Stream<Locatable<T>>> parallelLocatableStreamAll(Pattern pattern) {
+        return rayStarts(null).parallelStream().map(start -> locatableStream(start, pattern));
+    }
+
+    /**
+     * Like {@link #parallelStreamAll(Pattern)} but only emits rays that can't be extended backwards, every other ray is
+     * a suffix of one of these. Each cell is visited once in total rather than once per ray that passes through it.
+     */
+    default Stream<Stream<T>> maximalStreamAll(LinearPattern pattern) {
+        return rayStarts(pattern).parallelStream().map(start -> stream(start, pattern));
+    }
+
+    default Stream<Stream<Locatable<T>>> maximalLocatableStreamAll(LinearPattern pattern) {
+        return rayStarts(pattern).parallelStream().map(start -> locatableStream(start, pattern));
+    }
+
+    /**
+     * Every cell, or with {@code maximalFor} only the cells whose predecessor along that pattern doesn't exist.
+     */
+    private List<V2> rayStarts(LinearPattern maximalFor) {
+        final List<V2> starts = new ArrayList<>();
+        final Sequence<T> sequence = iterator();
+        final Cursor cursor = new Cursor();
+        while (sequence.nextLocation(cursor)) {
+            if (maximalFor != null) {
+                final int previousX = cursor.x - maximalFor.xIncrement();
+                final int previousY = cursor.y - maximalFor.yIncrement();
+                if (exists(previousX, previousY)) continue;
+            }
+            starts.add(cursor.toV2());
+        }
+        return starts;
+    }
+
 
     // =================================================================================================================
     // ==== Supporting Classes =========================================================================================
 
+    @FunctionalInterface
+    interface CellVisitor<T> {
+        void visit(int x, int y, T value);
+    }
+
     interface Locatable<T> {
         T get();
         V2 location();
+
+        /**
+         * Same as {@code location().x()}, without the {@link V2} for implementations that don't hold one.
+         */
+        default int x() {
+            return location().x;
+        }
+
+        default int y() {
+            return location().y;
+        }
+    }
+
+    /**
+     * A {@link Locatable} that is overwritten in place for each cell, see {@link Grid#flyweightLocatableIterator()}.
+     * Read it through {@link #get()}, {@link #x()} and {@link #y()}, {@link #location()} allocates a fresh {@link V2}.
+     */
+    final class Flyweight<T> implements Locatable<T> {
+
+        private T value;
+        private int x;
+        private int y;
+
+
+
+        public Flyweight() { }
+
+
+
+        @Override
+        public T get() {
+            return value;
+        }
+
+        @Override
+        public V2 location() {
+            return new V2(x, y);
+        }
+
+        @Override
+        public int x() {
+            return x;
+        }
+
+        @Override
+        public int y() {
+            return y;
+        }
+
+        public Flyweight<T> set(int x, int y, T value) {
+            this.x = x;
+            this.y = y;
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Flyweight[x=" + x + ", y=" + y + ", value=" + value + "]";
+        }
+
     }
 
     interface Sequence<T> extends Iterator<T> {
@@ -164,6 +446,69 @@ public interface Grid<T> extends Collection<T> {
             if (hasNext) nextLocation();
             return hasNext;
         }
+
+        /**
+         * Allocation free version of {@link #nextLocation()}. Writes the next location into {@code into} and advances,
+         * returns false, leaving {@code into} untouched, if there is nothing left.
+         */
+        default boolean nextLocation(Cursor into) {
+            if (!hasNextLocation()) return false;
+            final V2 location = nextLocation();
+            into.set(location.x, location.y);
+            return true;
+        }
+
+        /**
+         * Allocation free version of {@link #peekLocation()}.
+         */
+        default boolean peekLocation(Cursor into) {
+            final V2 location = peekLocation().orElse(null);
+            if (location == null) return false;
+            into.set(location.x, location.y);
+            return true;
+        }
+
+        /**
+         * Advances over up to {@code length} cells, writing their locations, packed by {@link Cursor#pack(int, int)},
+         * into {@code locations} from {@code offset}.
+         *
+         * @return how many were written, 0 once the sequence is exhausted.
+         */
+        default int nextLocations(long[] locations, int offset, int length) {
+            final Cursor cursor = new Cursor();
+            int count = 0;
+            while (count < length && nextLocation(cursor)) {
+                locations[offset + count++] = cursor.key();
+            }
+            return count;
+        }
+
+        /**
+         * Batched {@link #next()}. Writes up to {@code length} values into {@code values} from {@code offset}, and
+         * their packed locations into {@code locations} at the same positions unless it is null.
+         *
+         * @return how many were written, 0 once the sequence is exhausted.
+         */
+        default int nextBatch(T[] values, long[] locations, int offset, int length) {
+            final Cursor cursor = new Cursor();
+            int count = 0;
+            while (count < length && peekLocation(cursor)) {
+                if (locations != null) locations[offset + count] = cursor.key();
+                values[offset + count++] = next();
+            }
+            return count;
+        }
+
+        /**
+         * {@link #forEachRemaining} with each cell's location as plain ints, without a {@link V2} or {@link Optional}
+         * per cell.
+         */
+        default void forEachRemainingCell(CellVisitor<? super T> visitor) {
+            final Cursor cursor = new Cursor();
+            while (peekLocation(cursor)) {
+                visitor.visit(cursor.x(), cursor.y(), next());
+            }
+        }
     }
 
     @FunctionalInterface
@@ -175,24 +520,148 @@ public interface Grid<T> extends Collection<T> {
     @FunctionalInterface
     interface Pattern {
         Optional<V2> next(V2 current);
+
+        /**
+         * Moves {@code cursor} to the next position in place, returning false if there isn't one. Patterns on hot paths
+         * should override this, the default goes through {@link #next(V2)} and so allocates.
+         */
+        default boolean step(Cursor cursor) {
+            final V2 next = next(cursor.toV2()).orElse(null);
+            if (next == null) return false;
+            cursor.set(next.x, next.y);
+            return true;
+        }
     }
 
 
 
-    record V2(int x, int y) {}
+    /**
+     * A pattern that moves by the same fixed increment every step.
+     */
+    interface LinearPattern extends Pattern {
+        int xIncrement();
+        int yIncrement();
 
-    record IncrementingPattern(int xIncrement, int yIncrement) implements Pattern {
         @Override
-        public Optional<V2> next(V2 current) {
-            final int newX = current.x + xIncrement;
-            final int newY = current.y + yIncrement;
+        default Optional<V2> next(V2 current) {
+            final int newX = current.x + xIncrement();
+            final int newY = current.y + yIncrement();
             return Optional.of(new V2(newX, newY));
         }
+
+        @Override
+        default boolean step(Cursor cursor) {
+            cursor.move(xIncrement(), yIncrement());
+            return true;
+        }
     }
 
 
 
-    enum CardanlPattern implements Pattern {
+    record V2(int x, int y) {}
+
+    record Rect(int x, int y, int width, int height) {
+        public static final Rect EMPTY = new Rect(0, 0, 0, 0);
+
+        public boolean contains(int x, int y) {
+            // Long arithmetic so rectangles reaching Integer.MAX_VALUE don't overflow.
+            return x >= this.x && y >= this.y && x < (long) this.x + width && y < (long) this.y + height;
+        }
+
+        public boolean isEmpty() {
+            return width <= 0 || height <= 0;
+        }
+
+        public long area() {
+            return isEmpty() ? 0 : (long) width * height;
+        }
+    }
+
+    /**
+     * A mutable, reusable position. Where {@link V2} is a value, a cursor is meant to be stepped around the grid by
+     * {@link Pattern#step(Cursor)} and {@link Sequence#nextLocation(Cursor)} without allocating.
+     */
+    final class Cursor {
+
+        private int x;
+        private int y;
+
+
+
+        public Cursor() { }
+
+        public Cursor(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public Cursor(V2 position) {
+            this(position.x, position.y);
+        }
+
+
+
+        public int x() {
+            return x;
+        }
+
+        public int y() {
+            return y;
+        }
+
+        public Cursor set(int x, int y) {
+            this.x = x;
+            this.y = y;
+            return this;
+        }
+
+        public Cursor set(Cursor other) {
+            return set(other.x, other.y);
+        }
+
+        public Cursor move(int xIncrement, int yIncrement) {
+            x += xIncrement;
+            y += yIncrement;
+            return this;
+        }
+
+        public long key() {
+            return pack(x, y);
+        }
+
+        public V2 toV2() {
+            return new V2(x, y);
+        }
+
+        @Override
+        public String toString() {
+            return "Cursor[x=" + x + ", y=" + y + "]";
+        }
+
+
+
+        /**
+         * Packs a position into a single long, x in the high half and y in the low half.
+         */
+        public static long pack(int x, int y) {
+            return ((long) x << 32) | (y & 0xFFFFFFFFL);
+        }
+
+        public static int unpackX(long key) {
+            return (int) (key >> 32);
+        }
+
+        public static int unpackY(long key) {
+            return (int) key;
+        }
+
+    }
+
+    record IncrementingPattern(int xIncrement, int yIncrement) implements LinearPattern { }
+
+
+
+    enum CardanlPattern implements LinearPattern {
         NORTH     ( 0, -1),
         SOUTH     ( 0,  1),
         EAST      ( 1,  0),
@@ -211,10 +680,13 @@ public interface Grid<T> extends Collection<T> {
         private final int yIncrement;
 
         @Override
-        public Optional<V2> next(V2 current) {
-            final int newX = current.x + xIncrement;
-            final int newY = current.y + yIncrement;
-            return Optional.of(new V2(newX, newY));
+        public int xIncrement() {
+            return xIncrement;
+        }
+
+        @Override
+        public int yIncrement() {
+            return yIncrement;
         }
     }
 
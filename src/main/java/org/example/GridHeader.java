@@ -0,0 +1,168 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed size header at the start of a binary grid file. The layout, little-endian throughout, is
+ * <pre>
+ *  0  magic     4 bytes, "BGRD"
+ *  4  version   short
+ *  6  cell type byte, see {@link CellType}
+ *  7  encoding  byte, see {@link Encoding}
+ *  8  width     int
+ * 12  height    int
+ * 16  reserved  16 bytes of zero
+ * </pre>
+ * The payload follows at {@link #SIZE}, which keeps raw payloads aligned for every cell type.
+ */
+public record GridHeader(CellType cellType, Encoding encoding, int width, int height) {
+
+    public static final int SIZE = 32;
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int MAGIC = ('B') | ('G' << 8) | ('R' << 16) | ('D' << 24);
+    private static final short VERSION = 1;
+
+
+
+    public GridHeader {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Negative grid size. [Width=%d, Height=%d]", width, height
+            ));
+        }
+    }
+
+
+
+    public long cellCount() {
+        return (long) width * height;
+    }
+
+    /**
+     * Size of the payload when it is {@link Encoding#RAW}.
+     */
+    public long rawPayloadBytes() {
+        return cellCount() * cellType.bytes;
+    }
+
+    /**
+     * Writes the header at the buffer's position, advancing it by {@link #SIZE}.
+     */
+    public void write(ByteBuffer buffer) {
+        final ByteOrder previousOrder = buffer.order();
+        buffer.order(ORDER)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .put((byte) cellType.code)
+                .put((byte) encoding.code)
+                .putInt(width)
+                .putInt(height)
+                .put(new byte[SIZE - 16])
+                .order(previousOrder);
+    }
+
+    /**
+     * Reads a header from the buffer's position, advancing it by {@link #SIZE}.
+     */
+    public static GridHeader read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < SIZE) {
+            throw new IOException(String.format(
+                    "Too short to be a grid file. [Bytes=%d]", buffer.remaining()
+            ));
+        }
+
+        final ByteOrder previousOrder = buffer.order();
+        buffer.order(ORDER);
+        try {
+            final int magic = buffer.getInt();
+            if (magic != MAGIC) throw new IOException(String.format("Not a grid file. [Magic=%08x]", magic));
+
+            final short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException(String.format(
+                        "Unsupported grid file version. [Version=%d]", version
+                ));
+            }
+
+            final CellType cellType = CellType.fromCode(buffer.get());
+            final Encoding encoding = Encoding.fromCode(buffer.get());
+            final int width = buffer.getInt();
+            final int height = buffer.getInt();
+            buffer.position(buffer.position() + (SIZE - 16));
+
+            if (width < 0 || height < 0) {
+                throw new IOException(String.format("Corrupt grid size. [Width=%d, Height=%d]", width, height));
+            }
+            return new GridHeader(cellType, encoding, width, height);
+        } finally {
+            buffer.order(previousOrder);
+        }
+    }
+
+
+
+    public enum CellType {
+        BYTE(1, 1, Byte.class),
+        INT(2, 4, Integer.class),
+        LONG(3, 8, Long.class);
+
+        CellType(int code, int bytes, Class<? extends Number> boxedType) {
+            this.code = code;
+            this.bytes = bytes;
+            this.boxedType = boxedType;
+        }
+
+        public final int code;
+        public final int bytes;
+        public final Class<? extends Number> boxedType;
+
+        public static CellType of(Class<?> boxedType) {
+            for (CellType type : values()) {
+                if (type.boxedType == boxedType) return type;
+            }
+            throw new IllegalArgumentException(String.format(
+                    "No cell type for the class. [Class=%s]", boxedType.getName()
+            ));
+        }
+
+        public static CellType fromCode(int code) throws IOException {
+            for (CellType type : values()) {
+                if (type.code == code) return type;
+            }
+            throw new IOException(String.format(
+                    "Unknown cell type. [Code=%d]", code
+            ));
+        }
+    }
+
+    public enum Encoding {
+        /** Every cell in row-major order, {@link CellType#bytes} each. */
+        RAW(0),
+        /** Row-major runs of equal cells, each an int run length followed by the cell value. */
+        RUN_LENGTH(1),
+        /**
+         * An int count of distinct values, at most 256, then those values, then one unsigned byte index into them per
+         * cell in row-major order.
+         */
+        DICTIONARY(2);
+
+        Encoding(int code) {
+            this.code = code;
+        }
+
+        public final int code;
+
+        public static Encoding fromCode(int code) throws IOException {
+            for (Encoding encoding : values()) {
+                if (encoding.code == code) return encoding;
+            }
+            throw new IOException(String.format(
+                    "Unknown encoding. [Code=%d]", code
+            ));
+        }
+    }
+
+}
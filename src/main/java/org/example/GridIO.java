@@ -0,0 +1,488 @@
+package org.example;
+
+import org.example.Grid.Rect;
+import org.example.GridHeader.CellType;
+import org.example.GridHeader.Encoding;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming reader and writer for the binary grid format, a {@link GridHeader} followed by the payload in the header's
+ * {@link Encoding}. Data goes straight between a reused direct buffer and the grid's backing array, with bulk copies
+ * for raw payloads, so nothing is boxed and nothing is staged in lists.
+ * <p>
+ * Grids are written over their {@link Grid#bounds()}, cells inside the bounds that don't exist are written as zero.
+ * Grids are always read back as array grids anchored at the origin.
+ */
+public final class GridIO {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_DICTIONARY_SIZE = 256;
+
+
+
+    private GridIO() { }
+
+
+    // =================================================================================================================
+    // ==== Writing ====================================================================================================
+
+    public static void write(Grid<? extends Number> grid, Path path, Encoding encoding) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+        )) {
+            write(grid, channel, encoding);
+        }
+    }
+
+    /**
+     * Writes a grid whose cell type is known from its class: the primitive array grids and {@link MappedGrid}.
+     */
+    public static void write(Grid<? extends Number> grid, WritableByteChannel channel, Encoding encoding)
+            throws IOException {
+        write(grid, cellTypeOf(grid), channel, encoding);
+    }
+
+    /**
+     * Writes any grid of numbers, narrowing every value to {@code cellType}.
+     */
+    public static void write(
+            Grid<? extends Number> grid, CellType cellType, WritableByteChannel channel, Encoding encoding
+    ) throws IOException {
+        final Rect bounds = grid.bounds();
+        final GridHeader header = new GridHeader(cellType, encoding, bounds.width(), bounds.height());
+        final CellSource source = sourceOf(grid, bounds);
+        final Writer writer = new Writer(channel);
+
+        header.write(writer.buffer);
+        switch (encoding) {
+            case RAW -> writeRaw(grid, header, source, writer);
+            case RUN_LENGTH -> writeRunLength(header, source, writer);
+            case DICTIONARY -> writeDictionary(header, source, writer);
+        }
+        writer.flush();
+    }
+
+    private static void writeRaw(Grid<? extends Number> grid, GridHeader header, CellSource source, Writer writer)
+            throws IOException {
+        // Array grids of the matching type are copied a buffer at a time.
+        if (grid instanceof IntGrid ints && header.cellType() == CellType.INT) {
+            writer.putInts(ints.data);
+        } else if (grid instanceof LongGrid longs && header.cellType() == CellType.LONG) {
+            writer.putLongs(longs.data);
+        } else if (grid instanceof ByteGrid bytes && header.cellType() == CellType.BYTE) {
+            writer.putBytes(bytes.data);
+        } else {
+            for (int y = 0; y < header.height(); y++) {
+                for (int x = 0; x < header.width(); x++) {
+                    writer.putValue(header.cellType(), source.get(x, y));
+                }
+            }
+        }
+    }
+
+    private static void writeRunLength(GridHeader header, CellSource source, Writer writer) throws IOException {
+        if (header.cellCount() == 0) return;
+
+        long runValue = narrow(header.cellType(), source.get(0, 0));
+        int runLength = 0;
+        for (int y = 0; y < header.height(); y++) {
+            for (int x = 0; x < header.width(); x++) {
+                final long value = narrow(header.cellType(), source.get(x, y));
+                if (value == runValue && runLength < Integer.MAX_VALUE) {
+                    runLength++;
+                    continue;
+                }
+                writer.putRun(header.cellType(), runLength, runValue);
+                runValue = value;
+                runLength = 1;
+            }
+        }
+        writer.putRun(header.cellType(), runLength, runValue);
+    }
+
+    private static void writeDictionary(GridHeader header, CellSource source, Writer writer) throws IOException {
+        final LongObjectMap<Integer> indexes = new LongObjectMap<>(MAX_DICTIONARY_SIZE);
+        final long[] dictionary = new long[MAX_DICTIONARY_SIZE];
+        int size = 0;
+        for (int y = 0; y < header.height(); y++) {
+            for (int x = 0; x < header.width(); x++) {
+                final long value = narrow(header.cellType(), source.get(x, y));
+                if (indexes.containsKey(value)) continue;
+                if (size == MAX_DICTIONARY_SIZE) {
+                    throw new IllegalArgumentException(
+                            "Too many distinct values for dictionary encoding, the limit is " + MAX_DICTIONARY_SIZE
+                    );
+                }
+                indexes.put(value, size);
+                dictionary[size++] = value;
+            }
+        }
+
+        writer.ensure(4);
+        writer.buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            writer.putValue(header.cellType(), dictionary[i]);
+        }
+        for (int y = 0; y < header.height(); y++) {
+            for (int x = 0; x < header.width(); x++) {
+                final int index = indexes.get(narrow(header.cellType(), source.get(x, y)));
+                writer.ensure(1);
+                writer.buffer.put((byte) index);
+            }
+        }
+    }
+
+
+    // =================================================================================================================
+    // ==== Reading ====================================================================================================
+
+    public static AbstractArrayGrid<? extends Number, ?> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Reads a grid of whatever cell type the header declares: an {@link IntGrid}, {@link LongGrid} or
+     * {@link ByteGrid}.
+     */
+    public static AbstractArrayGrid<? extends Number, ?> read(ReadableByteChannel channel) throws IOException {
+        final Reader reader = new Reader(channel);
+        reader.ensure(GridHeader.SIZE);
+        final GridHeader header = GridHeader.read(reader.buffer);
+
+        final int width = header.width();
+        final int height = header.height();
+        final ArraySink sink = switch (header.cellType()) {
+            case BYTE -> new ByteSink(ByteGrid.of(width, height));
+            case INT -> new IntSink(IntGrid.of(width, height));
+            case LONG -> new LongSink(LongGrid.of(width, height));
+        };
+
+        switch (header.encoding()) {
+            case RAW -> sink.readRaw(reader);
+            case RUN_LENGTH -> readRunLength(header, reader, sink);
+            case DICTIONARY -> readDictionary(header, reader, sink);
+        }
+        return sink.grid();
+    }
+
+    public static IntGrid readIntGrid(ReadableByteChannel channel) throws IOException {
+        return expect(read(channel), IntGrid.class);
+    }
+
+    public static LongGrid readLongGrid(ReadableByteChannel channel) throws IOException {
+        return expect(read(channel), LongGrid.class);
+    }
+
+    public static ByteGrid readByteGrid(ReadableByteChannel channel) throws IOException {
+        return expect(read(channel), ByteGrid.class);
+    }
+
+    private static void readRunLength(GridHeader header, Reader reader, ArraySink sink) throws IOException {
+        final int cellCount = (int) header.cellCount();
+        final int cellBytes = header.cellType().bytes;
+        int index = 0;
+        while (index < cellCount) {
+            reader.ensure(4 + cellBytes);
+            final int runLength = reader.buffer.getInt();
+            final long value = reader.getValue(header.cellType());
+            if (runLength <= 0 || runLength > cellCount - index) {
+                throw new IOException(String.format("Corrupt run. [Index=%d, RunLength=%d]", index, runLength));
+            }
+            sink.fill(index, index + runLength, value);
+            index += runLength;
+        }
+    }
+
+    private static void readDictionary(GridHeader header, Reader reader, ArraySink sink) throws IOException {
+        reader.ensure(4);
+        final int size = reader.buffer.getInt();
+        if (size < 0 || size > MAX_DICTIONARY_SIZE) {
+            throw new IOException(String.format(
+                    "Corrupt dictionary size. [Size=%d]", size
+            ));
+        }
+
+        final long[] dictionary = new long[size];
+        for (int i = 0; i < size; i++) {
+            reader.ensure(header.cellType().bytes);
+            dictionary[i] = reader.getValue(header.cellType());
+        }
+
+        final int cellCount = (int) header.cellCount();
+        int index = 0;
+        while (index < cellCount) {
+            reader.ensure(1);
+            final int available = Math.min(reader.buffer.remaining(), cellCount - index);
+            for (int i = 0; i < available; i++) {
+                final int entry = reader.buffer.get() & 0xFF;
+                if (entry >= size) {
+                    throw new IOException(String.format(
+                            "Corrupt dictionary index. [Index=%d, Size=%d]", entry, size
+                    ));
+                }
+                sink.set(index++, dictionary[entry]);
+            }
+        }
+    }
+
+
+
+    private static CellType cellTypeOf(Grid<? extends Number> grid) {
+        if (grid instanceof IntGrid) return CellType.INT;
+        if (grid instanceof LongGrid) return CellType.LONG;
+        if (grid instanceof ByteGrid) return CellType.BYTE;
+        if (grid instanceof MappedGrid<?> mapped) return mapped.header().cellType();
+        throw new IllegalArgumentException(
+                "Can't tell the cell type of " + grid.getClass().getName() + ", pass one explicitly."
+        );
+    }
+
+    private static CellSource sourceOf(Grid<? extends Number> grid, Rect bounds) {
+        if (grid instanceof IntGrid ints) return (x, y) -> ints.data[ints.index(x, y)];
+        if (grid instanceof LongGrid longs) return (x, y) -> longs.data[longs.index(x, y)];
+        if (grid instanceof ByteGrid bytes) return (x, y) -> bytes.data[bytes.index(x, y)];
+        if (grid instanceof MappedGrid<?> mapped) return mapped::getAsLong;
+
+        return (x, y) -> {
+            final int gridX = bounds.x() + x;
+            final int gridY = bounds.y() + y;
+            if (!grid.exists(gridX, gridY)) return 0;
+            final Number value = grid.get(gridX, gridY);
+            return (value != null) ? value.longValue() : 0;
+        };
+    }
+
+    private static long narrow(CellType cellType, long value) {
+        return switch (cellType) {
+            case BYTE -> (byte) value;
+            case INT -> (int) value;
+            case LONG -> value;
+        };
+    }
+
+    private static <G> G expect(AbstractArrayGrid<? extends Number, ?> grid, Class<G> type) throws IOException {
+        if (!type.isInstance(grid)) {
+            throw new IOException(String.format(
+                    "Unexpected cell type. [Expected=%s, Read=%s]",
+                    type.getSimpleName(), grid.getClass().getSimpleName()
+            ));
+        }
+        return type.cast(grid);
+    }
+
+
+
+    @FunctionalInterface
+    private interface CellSource {
+        long get(int x, int y);
+    }
+
+    private static final class Writer {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(GridHeader.ORDER);
+
+
+
+        private Writer(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        private void putValue(CellType cellType, long value) throws IOException {
+            ensure(cellType.bytes);
+            switch (cellType) {
+                case BYTE -> buffer.put((byte) value);
+                case INT -> buffer.putInt((int) value);
+                case LONG -> buffer.putLong(value);
+            }
+        }
+
+        private void putRun(CellType cellType, int runLength, long value) throws IOException {
+            ensure(4 + cellType.bytes);
+            buffer.putInt(runLength);
+            putValue(cellType, value);
+        }
+
+        private void putInts(int[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensure(Integer.BYTES);
+                final int count = Math.min(values.length - offset, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + (count * Integer.BYTES));
+                offset += count;
+            }
+        }
+
+        private void putLongs(long[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensure(Long.BYTES);
+                final int count = Math.min(values.length - offset, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + (count * Long.BYTES));
+                offset += count;
+            }
+        }
+
+        private void putBytes(byte[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                ensure(1);
+                final int count = Math.min(values.length - offset, buffer.remaining());
+                buffer.put(values, offset, count);
+                offset += count;
+            }
+        }
+
+    }
+
+    private static final class Reader {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(GridHeader.ORDER);
+
+
+
+        private Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+
+
+        /**
+         * Makes sure at least {@code bytes} are ready to be read from {@link #buffer}.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) return;
+
+            buffer.compact();
+            try {
+                while (buffer.position() < bytes) {
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException(String.format(
+                                "Grid data ended early. [Needed=%d]", bytes
+                        ));
+                    }
+                }
+            } finally {
+                buffer.flip();
+            }
+        }
+
+        private long getValue(CellType cellType) {
+            return switch (cellType) {
+                case BYTE -> buffer.get();
+                case INT -> buffer.getInt();
+                case LONG -> buffer.getLong();
+            };
+        }
+
+    }
+
+    /**
+     * Somewhere to put decoded cells, by flat row-major index.
+     */
+    private interface ArraySink {
+        AbstractArrayGrid<? extends Number, ?> grid();
+
+        void set(int index, long value);
+
+        void fill(int from, int to, long value);
+
+        void readRaw(Reader reader) throws IOException;
+    }
+
+    private record IntSink(IntGrid grid) implements ArraySink {
+        @Override
+        public void set(int index, long value) {
+            grid.data[index] = (int) value;
+        }
+
+        @Override
+        public void fill(int from, int to, long value) {
+            Arrays.fill(grid.data, from, to, (int) value);
+        }
+
+        @Override
+        public void readRaw(Reader reader) throws IOException {
+            final int[] data = grid.data;
+            for (int offset = 0; offset < data.length; ) {
+                reader.ensure(Integer.BYTES);
+                final int count = Math.min(data.length - offset, reader.buffer.remaining() / Integer.BYTES);
+                reader.buffer.asIntBuffer().get(data, offset, count);
+                reader.buffer.position(reader.buffer.position() + (count * Integer.BYTES));
+                offset += count;
+            }
+        }
+    }
+
+    private record LongSink(LongGrid grid) implements ArraySink {
+        @Override
+        public void set(int index, long value) {
+            grid.data[index] = value;
+        }
+
+        @Override
+        public void fill(int from, int to, long value) {
+            Arrays.fill(grid.data, from, to, value);
+        }
+
+        @Override
+        public void readRaw(Reader reader) throws IOException {
+            final long[] data = grid.data;
+            for (int offset = 0; offset < data.length; ) {
+                reader.ensure(Long.BYTES);
+                final int count = Math.min(data.length - offset, reader.buffer.remaining() / Long.BYTES);
+                reader.buffer.asLongBuffer().get(data, offset, count);
+                reader.buffer.position(reader.buffer.position() + (count * Long.BYTES));
+                offset += count;
+            }
+        }
+    }
+
+    private record ByteSink(ByteGrid grid) implements ArraySink {
+        @Override
+        public void set(int index, long value) {
+            grid.data[index] = (byte) value;
+        }
+
+        @Override
+        public void fill(int from, int to, long value) {
+            Arrays.fill(grid.data, from, to, (byte) value);
+        }
+
+        @Override
+        public void readRaw(Reader reader) throws IOException {
+            final byte[] data = grid.data;
+            for (int offset = 0; offset < data.length; ) {
+                reader.ensure(1);
+                final int count = Math.min(data.length - offset, reader.buffer.remaining());
+                reader.buffer.get(data, offset, count);
+                offset += count;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Dense, regular grid of {@code int}s. Use {@link #getInt(int, int)} and {@link #setInt(int, int, int)} on hot paths,
+ * the {@link Grid} accessors box.
+ */
+public class IntGrid extends AbstractArrayGrid<Integer, int[]> {
+
+    /**
+     * For use by subclasses.
+     */
+    protected IntGrid(int width, int height, int[] data) {
+        super(width, height, data, data.length);
+    }
+
+    public static IntGrid of(int width, int height) {
+        return new IntGrid(width, height, new int[checkedLength(width, height)]);
+    }
+
+    /**
+     * Wraps {@code data} without copying it, {@code data} is expected to be row-major.
+     */
+    public static IntGrid noCopy(int width, int height, int[] data) {
+        return new IntGrid(width, height, data);
+    }
+
+    /**
+     * Copies possibly jagged rows into a regular grid, cells missing from short rows are left as zero.
+     */
+    public static IntGrid copyOf(List<? extends List<? extends Number>> rows) {
+        final IntGrid grid = of(widthOf(rows), rows.size());
+        for (int y = 0; y < rows.size(); y++) {
+            final List<? extends Number> row = rows.get(y);
+            for (int x = 0; x < row.size(); x++) {
+                final Number value = row.get(x);
+                if (value != null) grid.data[grid.index(x, y)] = value.intValue();
+            }
+        }
+        return grid;
+    }
+
+
+
+    public int getInt(int x, int y) {
+        return data[checkedIndex(x, y)];
+    }
+
+    public void setInt(int x, int y, int value) {
+        data[checkedIndex(x, y)] = value;
+    }
+
+    /**
+     * Writes the value at each of {@code stencil}'s offsets from (x, y) into {@code into}, in stencil order, with
+     * {@code missing} for offsets off the grid.
+     *
+     * @return how many of the offsets were on the grid.
+     */
+    public int neighbours(int x, int y, Stencil stencil, int[] into, int missing) {
+        if (isInterior(x, y, stencil)) {
+            final int centre = index(x, y);
+            final int[] offsets = indexOffsets(stencil);
+            for (int i = 0; i < offsets.length; i++) {
+                into[i] = data[centre + offsets[i]];
+            }
+            return offsets.length;
+        }
+
+        int found = 0;
+        for (int i = 0; i < stencil.size(); i++) {
+            final int index = neighbourIndex(x, y, stencil, i);
+            if (index >= 0) found++;
+            into[i] = (index >= 0) ? data[index] : missing;
+        }
+        return found;
+    }
+
+    /**
+     * Unboxed version of {@link #forEachNeighbour(int, int, Stencil, CellVisitor)}.
+     */
+    public void forEachNeighbourInt(int x, int y, Stencil stencil, IntCellVisitor visitor) {
+        if (isInterior(x, y, stencil)) {
+            final int centre = index(x, y);
+            final int[] offsets = indexOffsets(stencil);
+            for (int i = 0; i < offsets.length; i++) {
+                visitor.visit(x + stencil.dx(i), y + stencil.dy(i), data[centre + offsets[i]]);
+            }
+            return;
+        }
+
+        for (int i = 0; i < stencil.size(); i++) {
+            final int index = neighbourIndex(x, y, stencil, i);
+            if (index >= 0) visitor.visit(x + stencil.dx(i), y + stencil.dy(i), data[index]);
+        }
+    }
+
+    /**
+     * Unboxed {@link #forEachCell(CellVisitor)}, a plain loop over the backing array.
+     */
+    public void forEachInt(IntCellVisitor visitor) {
+        iterator().forEachRemainingInt(visitor);
+    }
+
+    @Override
+    public IntSequence iterator() {
+        return new IntSequence();
+    }
+
+    @Override
+    protected Integer getAt(int index) {
+        return data[index];
+    }
+
+    @Override
+    protected void setAt(int index, Integer value) {
+        data[index] = value;
+    }
+
+    @Override
+    protected void fill(int from, int to, Integer value) {
+        Arrays.fill(data, from, to, value);
+    }
+
+    @Override
+    protected int characteristics() {
+        return Spliterator.NONNULL;
+    }
+
+
+
+    /**
+     * {@link ArraySequence} with an unboxed {@link #forEachRemainingCell}.
+     */
+    public class IntSequence extends ArraySequence {
+
+        protected IntSequence() { }
+
+
+
+        public void forEachRemainingInt(IntCellVisitor visitor) {
+            forEachRemainingIndex((x, y, index) -> visitor.visit(x, y, data[index]));
+        }
+
+    }
+
+    @FunctionalInterface
+    public interface IntCellVisitor {
+        void visit(int x, int y, int value);
+    }
+
+}
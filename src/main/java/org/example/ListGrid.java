@@ -3,12 +3,16 @@ package org.example;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
 
-public class ListGrid<T> extends AbstractGrid<T> {
+public class ListGrid<T> extends AbstractGrid<T> implements MutableGrid<T> {
 
     private final List<List<T>> data;
+    private final boolean immutable;
 
     private int size = -1;
+    private long[] rowStarts;
+    private Rect bounds;
 
 
 
@@ -16,7 +20,12 @@ public class ListGrid<T> extends AbstractGrid<T> {
      * For use by subclasses.
      */
     protected ListGrid(List<List<T>> data) {
+        this(data, false);
+    }
+
+    private ListGrid(List<List<T>> data, boolean immutable) {
         this.data = data;
+        this.immutable = immutable;
     }
 
     public static <T> ListGrid<T> noCopy(List<List<T>> data) {
@@ -28,7 +37,7 @@ public class ListGrid<T> extends AbstractGrid<T> {
                 .map(Collections::unmodifiableList)
                 .toList();
 
-        return new ListGrid<>(unmodifiableCopy);
+        return new ListGrid<>(unmodifiableCopy, true);
     }
 
 
@@ -38,6 +47,19 @@ public class ListGrid<T> extends AbstractGrid<T> {
         return data.get(y).get(x);
     }
 
+    /**
+     * Writes through to the backing list, so a {@link #noCopy(List)} grid needs modifiable rows. Only replaces cells,
+     * rows never grow.
+     */
+    @Override
+    public void set(int x, int y, T value) {
+        if (immutable) throw new UnsupportedOperationException("Grid is immutable.");
+        if (!exists(x, y)) {
+            throw new IndexOutOfBoundsException(String.format("Cell isn't in the grid. [X=%d, Y=%d]", x, y));
+        }
+        data.get(y).set(x, value);
+    }
+
     @Override
     public boolean exists(int x, int y) {
         if (x < 0 || y < 0 || y >= data.size()) return false;
@@ -45,6 +67,23 @@ public class ListGrid<T> extends AbstractGrid<T> {
         return x < row.size();
     }
 
+    /**
+     * Clipped to the rows first, then row by row against each row's length, without touching the rows themselves.
+     */
+    @Override
+    public int rayLength(int x, int y, int xIncrement, int yIncrement) {
+        final long[] rowStarts = rowStarts();
+        final int rows = Math.min(
+                stepsWithin(y, yIncrement, 0, rowStarts.length - 1), stepsWithin(x, xIncrement, 0, width())
+        );
+        if (rows == 0) return 0;
+        if (yIncrement == 0) return Math.min(rows, stepsWithin(x, xIncrement, 0, rowLength(rowStarts, y)));
+
+        int length = 0;
+        while (length < rows && x + length * xIncrement < rowLength(rowStarts, y + length * yIncrement)) length++;
+        return length;
+    }
+
     @Override
     public int size() {
         // This class doesn't enforce a regular grid, and therefore we can't do better than O(sizeof(data)) so we cash
@@ -56,25 +95,41 @@ public class ListGrid<T> extends AbstractGrid<T> {
     }
 
     @Override
-    public Sequence<T> iterator() {
-        final Pattern allItems = current -> {
-            if (current.y() >= data.size()) return Optional.empty();
-
-            final List<T> row = data.get(current.y());
-            final int nextX = current.x() + 1;
-            if (nextX < row.size()) {
-                final V2 nextV2 = new V2(nextX, current.y());
-                return Optional.of(nextV2);
+    public Rect bounds() {
+        // Cached on the same grounds as size.
+        if (bounds == null) {
+            int minY = -1;
+            int maxY = -1;
+            int width = 0;
+            for (int y = 0; y < data.size(); y++) {
+                final int rowSize = data.get(y).size();
+                if (rowSize == 0) continue;
+                if (minY == -1) minY = y;
+                maxY = y;
+                width = Math.max(width, rowSize);
             }
+            bounds = (minY == -1) ? Rect.EMPTY : new Rect(0, minY, width, maxY - minY + 1);
+        }
+        return bounds;
+    }
 
-            for (int nextY = current.y() + 1; nextY < data.size(); nextY++) {
-                if (data.get(nextY).isEmpty()) continue;
-                final V2 nextV2 = new V2(0, nextY);
-                return Optional.of(nextV2);
-            }
+    @Override
+    public Spliterator<T> spliterator() {
+        return RowMajorSpliterator.jagged(rowStarts(), this::get, characteristics());
+    }
+
+    @Override
+    public Spliterator<Locatable<T>> locatableSpliterator() {
+        return RowMajorSpliterator.jagged(
+                rowStarts(),
+                (x, y) -> new LocationPair<>(get(x, y), new V2(x, y)),
+                characteristics()
+        );
+    }
 
-            return Optional.empty();
-        };
+    @Override
+    public Sequence<T> iterator() {
+        final Pattern allItems = new AllItemsPattern();
 
         final V2 preStart = new V2(-1, 0);
         final V2 outOfBounds = new V2(Integer.MAX_VALUE, Integer.MAX_VALUE);
@@ -83,4 +138,59 @@ public class ListGrid<T> extends AbstractGrid<T> {
         return new Itor<>(this, allItems, start);
     }
 
+
+
+    private long[] rowStarts() {
+        // Cached on the same grounds as size, rows of a noCopy grid changing length isn't supported.
+        if (rowStarts == null) {
+            rowStarts = RowMajorSpliterator.rowStarts(data.stream().mapToInt(List::size).toArray());
+        }
+        return rowStarts;
+    }
+
+    private int width() {
+        return bounds().x() + bounds().width();
+    }
+
+    private static int rowLength(long[] rowStarts, int y) {
+        return (int) (rowStarts[y + 1] - rowStarts[y]);
+    }
+
+    private int characteristics() {
+        return immutable ? Spliterator.IMMUTABLE : 0;
+    }
+
+
+
+    /**
+     * Row-major walk over every item, skipping empty rows.
+     */
+    private class AllItemsPattern implements Pattern {
+        @Override
+        public Optional<V2> next(V2 current) {
+            final Cursor cursor = new Cursor(current);
+            return step(cursor) ? Optional.of(cursor.toV2()) : Optional.empty();
+        }
+
+        @Override
+        public boolean step(Cursor cursor) {
+            if (cursor.y() >= data.size()) return false;
+
+            final List<T> row = data.get(cursor.y());
+            final int nextX = cursor.x() + 1;
+            if (nextX < row.size()) {
+                cursor.set(nextX, cursor.y());
+                return true;
+            }
+
+            for (int nextY = cursor.y() + 1; nextY < data.size(); nextY++) {
+                if (data.get(nextY).isEmpty()) continue;
+                cursor.set(0, nextY);
+                return true;
+            }
+
+            return false;
+        }
+    }
+
 }
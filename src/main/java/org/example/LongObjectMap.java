@@ -0,0 +1,191 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to non-null values, so packed positions
+ * ({@link Grid.Cursor#pack(int, int)}) can be used as keys without boxing. Linear probing with backward shift deletion,
+ * so there are no tombstones and lookups stay short after many removals.
+ * <p>
+ * A slot is occupied exactly when its value is non-null, which leaves every long free to be a key. The slot accessors
+ * allow walking the entries without allocating, they are only stable while the map isn't modified.
+ */
+public final class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        final int slot = slotOf(key);
+        return (slot >= 0) ? (V) values[slot] : null;
+    }
+
+    /**
+     * @return the previous value, or null if there wasn't one.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) throw new NullPointerException("Null values mark free slots and can't be stored.");
+
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                final V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) allocate(values.length * 2);
+        return null;
+    }
+
+    /**
+     * @return the removed value, or null if there wasn't one.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        final int slot = slotOf(key);
+        if (slot < 0) return null;
+
+        final V previous = (V) values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+
+    // =================================================================================================================
+    // ==== Slot Access ================================================================================================
+
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * The first occupied slot at or after {@code from}, or -1 if there are none.
+     */
+    public int nextSlot(int from) {
+        for (int slot = from; slot < values.length; slot++) {
+            if (values[slot] != null) return slot;
+        }
+        return -1;
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+
+
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Empties {@code slot}, moving later entries of the probe run back so none is left behind the gap.
+     */
+    private void shiftBack(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            final int home = hash(keys[next]) & mask;
+            // The entry can fill the gap unless its home slot lies cyclically in (gap, next].
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void allocate(int capacity) {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+
+        if (oldValues == null) return;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (values[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        final long needed = (long) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR);
+        final long capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(needed - 1) << 1);
+        if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException(String.format(
+                    "Map too large. [ExpectedSize=%d]", expectedSize
+            ));
+        }
+        return (int) capacity;
+    }
+
+    /**
+     * Packed positions have very regular bits, so they are scrambled before being reduced to a slot.
+     */
+    private static int hash(long key) {
+        final long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+}
@@ -135,17 +135,28 @@ public class Main {
         final Color lightGrey = new Color(0x808080);
         final Color midGrey = new Color(0x606060);
 
+        final IntGrid tiles = IntGrid.of(tileWidth, tileHeight);
         for (int i = 0; i < tileWidth; i++) {
             for (int j = 0; j < tileHeight; j++) {
-                final JPanel panel = new JPanel();
-                final Color colour = ((i + j) % 2 == 0) ? midGrey : lightGrey;
-                panel.setBackground(colour);
-                contentPane.add(panel, new Constraints(i, j, 1, 1));
+                tiles.setInt(i, j, (i + j) % 2);
             }
         }
+
+        final CellCanvas<Integer> canvas = new CellCanvas<>(tiles, new CellCanvas.CellRenderer<>() {
+            @Override
+            public char glyph(Integer value) {
+                return NO_GLYPH;
+            }
+
+            @Override
+            public Color background(Integer value) {
+                return (value == 0) ? midGrey : lightGrey;
+            }
+        });
+        contentPane.add(canvas, new Constraints("tiles", 0, 0, tileWidth, tileHeight));
         log.error("Done tilling");
 
-        return List.of();
+        return List.of(canvas);
     }
 
     private static MouseAdapter createMouseAdaptor(
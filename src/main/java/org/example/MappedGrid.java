@@ -0,0 +1,315 @@
+package org.example;
+
+import org.example.GridHeader.CellType;
+import org.example.GridHeader.Encoding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+
+/**
+ * Regular grid of numbers kept in a memory-mapped file, so it can be far larger than the heap and opens without reading
+ * the file. The file is a {@link GridHeader} followed by a {@link Encoding#RAW} row-major payload.
+ * <p>
+ * A single {@link MappedByteBuffer} can't span more than 2 GB so the payload is mapped as a series of segments. Cells
+ * are at most 8 bytes and segments are a power of two, so no cell straddles two segments.
+ * <p>
+ * Closing flushes a writable grid and closes the file, but the mapping itself is only released once the grid has been
+ * garbage collected.
+ */
+public class MappedGrid<T extends Number> extends AbstractGrid<T> implements MutableGrid<T>, AutoCloseable {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final FileChannel channel;
+    private final Mode mode;
+    private final GridHeader header;
+    private final CellType cellType;
+    private final int width;
+    private final int height;
+    private final MappedByteBuffer[] segments;
+
+
+
+    private MappedGrid(FileChannel channel, Mode mode, GridHeader header) throws IOException {
+        this.channel = channel;
+        this.mode = mode;
+        this.header = header;
+        this.cellType = header.cellType();
+        this.width = header.width();
+        this.height = header.height();
+
+        final long payloadBytes = header.rawPayloadBytes();
+        final int segmentCount = (int) ((payloadBytes + SEGMENT_MASK) >>> SEGMENT_BITS);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            final long offset = (long) i << SEGMENT_BITS;
+            final long length = Math.min(1L << SEGMENT_BITS, payloadBytes - offset);
+            segments[i] = channel.map(mode.mapMode, GridHeader.SIZE + offset, length);
+            segments[i].order(GridHeader.ORDER);
+        }
+    }
+
+    /**
+     * Creates, or truncates, a file for a {@code width} by {@code height} grid with every cell zero, and maps it
+     * {@link Mode#READ_WRITE}. The file is sized up front but on most file systems the zeroed pages aren't written.
+     */
+    public static <T extends Number> MappedGrid<T> create(Path path, Class<T> type, int width, int height)
+            throws IOException {
+        final GridHeader header = new GridHeader(CellType.of(type), Encoding.RAW, width, height);
+        final FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        try {
+            final ByteBuffer headerBytes = ByteBuffer.allocate(GridHeader.SIZE);
+            header.write(headerBytes);
+            headerBytes.flip();
+            while (headerBytes.hasRemaining()) channel.write(headerBytes, headerBytes.position());
+
+            final long fileSize = GridHeader.SIZE + header.rawPayloadBytes();
+            if (fileSize > GridHeader.SIZE) channel.write(ByteBuffer.allocate(1), fileSize - 1);
+
+            return new MappedGrid<>(channel, Mode.READ_WRITE, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps an existing grid file. Only the header is read, {@code type} must match the file's cell type.
+     */
+    public static <T extends Number> MappedGrid<T> open(Path path, Class<T> type, Mode mode) throws IOException {
+        final FileChannel channel = (mode == Mode.READ_WRITE)
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final ByteBuffer headerBytes = ByteBuffer.allocate(GridHeader.SIZE);
+            while (headerBytes.hasRemaining() && channel.read(headerBytes, headerBytes.position()) >= 0) { }
+            headerBytes.flip();
+            final GridHeader header = GridHeader.read(headerBytes);
+
+            if (header.encoding() != Encoding.RAW) {
+                throw new IOException(String.format(
+                        "Only raw grid files can be mapped. [Encoding=%s]", header.encoding()
+                ));
+            }
+            if (header.cellType() != CellType.of(type)) {
+                throw new IOException(String.format(
+                        "Cell type mismatch. [File=%s, Requested=%s]", header.cellType(), type.getSimpleName()
+                ));
+            }
+            if (channel.size() < GridHeader.SIZE + header.rawPayloadBytes()) {
+                throw new IOException(String.format(
+                        "Grid file is truncated. [Size=%d, Expected=%d]",
+                        channel.size(), GridHeader.SIZE + header.rawPayloadBytes()
+                ));
+            }
+
+            return new MappedGrid<>(channel, mode, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+
+
+    public GridHeader header() {
+        return header;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public long cellCount() {
+        return header.cellCount();
+    }
+
+    public byte getByte(int x, int y) {
+        final long offset = checkedOffset(x, y, CellType.BYTE);
+        return segment(offset).get(within(offset));
+    }
+
+    public int getInt(int x, int y) {
+        final long offset = checkedOffset(x, y, CellType.INT);
+        return segment(offset).getInt(within(offset));
+    }
+
+    public long getLong(int x, int y) {
+        final long offset = checkedOffset(x, y, CellType.LONG);
+        return segment(offset).getLong(within(offset));
+    }
+
+    public void setByte(int x, int y, byte value) {
+        final long offset = checkedWritableOffset(x, y, CellType.BYTE);
+        segment(offset).put(within(offset), value);
+    }
+
+    public void setInt(int x, int y, int value) {
+        final long offset = checkedWritableOffset(x, y, CellType.INT);
+        segment(offset).putInt(within(offset), value);
+    }
+
+    public void setLong(int x, int y, long value) {
+        final long offset = checkedWritableOffset(x, y, CellType.LONG);
+        segment(offset).putLong(within(offset), value);
+    }
+
+    /**
+     * Any cell type widened to a long.
+     */
+    public long getAsLong(int x, int y) {
+        return read(checkedOffset(x, y, cellType));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int x, int y) {
+        final long value = getAsLong(x, y);
+        // Typed as Number, or the switch would unify the boxes by unboxing them all to long.
+        final Number boxed = switch (cellType) {
+            case BYTE -> Byte.valueOf((byte) value);
+            case INT -> Integer.valueOf((int) value);
+            case LONG -> Long.valueOf(value);
+        };
+        return (T) boxed;
+    }
+
+    /**
+     * The value is narrowed to the file's cell type.
+     */
+    @Override
+    public void set(int x, int y, T value) {
+        final long offset = checkedWritableOffset(x, y, cellType);
+        final ByteBuffer segment = segment(offset);
+        final int within = within(offset);
+        switch (cellType) {
+            case BYTE -> segment.put(within, value.byteValue());
+            case INT -> segment.putInt(within, value.intValue());
+            case LONG -> segment.putLong(within, value.longValue());
+        }
+    }
+
+    @Override
+    public boolean exists(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    @Override
+    public int rayLength(int x, int y, int xIncrement, int yIncrement) {
+        return Math.min(stepsWithin(x, xIncrement, 0, width), stepsWithin(y, yIncrement, 0, height));
+    }
+
+    /**
+     * Capped at {@link Integer#MAX_VALUE} as per {@link java.util.Collection#size()}, see {@link #cellCount()}.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, cellCount());
+    }
+
+    @Override
+    public Rect bounds() {
+        return new Rect(0, 0, width, height);
+    }
+
+    @Override
+    public Sequence<T> iterator() {
+        final V2 start = (width > 0 && height > 0) ? new V2(0, 0) : null;
+        return new Itor<>(this, new RowMajorPattern(width, height), start);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return RowMajorSpliterator.regular(width, height, this::get, Spliterator.NONNULL);
+    }
+
+    @Override
+    public Spliterator<Locatable<T>> locatableSpliterator() {
+        return RowMajorSpliterator.regular(
+                width, height, (x, y) -> new LocationPair<>(get(x, y), new V2(x, y)), Spliterator.NONNULL
+        );
+    }
+
+    /**
+     * Writes changes made through a {@link Mode#READ_WRITE} grid back to the file.
+     */
+    public void force() {
+        if (mode != Mode.READ_WRITE) return;
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+
+
+    private long checkedOffset(int x, int y, CellType expected) {
+        if (cellType != expected) {
+            throw new IllegalStateException(String.format(
+                    "Cell type mismatch. [Grid=%s, Accessed=%s]", cellType, expected
+            ));
+        }
+        if (!exists(x, y)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the grid. [X=%d, Y=%d, Width=%d, Height=%d]", x, y, width, height
+            ));
+        }
+        return (((long) y * width) + x) * cellType.bytes;
+    }
+
+    private long checkedWritableOffset(int x, int y, CellType expected) {
+        if (mode != Mode.READ_WRITE) throw new UnsupportedOperationException("Grid is mapped read only.");
+        return checkedOffset(x, y, expected);
+    }
+
+    private long read(long offset) {
+        final ByteBuffer segment = segment(offset);
+        final int within = within(offset);
+        return switch (cellType) {
+            case BYTE -> segment.get(within);
+            case INT -> segment.getInt(within);
+            case LONG -> segment.getLong(within);
+        };
+    }
+
+    private ByteBuffer segment(long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)];
+    }
+
+    private static int within(long offset) {
+        return (int) (offset & SEGMENT_MASK);
+    }
+
+
+
+    public enum Mode {
+        READ_ONLY(FileChannel.MapMode.READ_ONLY),
+        READ_WRITE(FileChannel.MapMode.READ_WRITE);
+
+        Mode(FileChannel.MapMode mapMode) {
+            this.mapMode = mapMode;
+        }
+
+        private final FileChannel.MapMode mapMode;
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.example;
+
+/**
+ * Maze held as one byte of openings per cell, flattened row-major so {@link PathFinder} can search it without boxing.
+ * Each cell's value is a bitmask of the sides it has a passage through, {@link #NORTH} = 1, {@link #EAST} = 2,
+ * {@link #SOUTH} = 4 and {@link #WEST} = 8, the encoding used by the maze tests.
+ * <p>
+ * A move is allowed when the cell being left is open on that side and the cell moved to is on the board. Mazes are
+ * expected to be consistent, with both cells of a passage open towards each other, but only the side being left is
+ * checked.
+ */
+public final class Maze {
+
+    public static final int NORTH = 1;
+    public static final int EAST = 2;
+    public static final int SOUTH = 4;
+    public static final int WEST = 8;
+
+    private final int width;
+    private final int height;
+    private final byte[] openings;
+
+
+
+    private Maze(int width, int height, byte[] openings) {
+        this.width = width;
+        this.height = height;
+        this.openings = openings;
+    }
+
+    /**
+     * Copies the openings out of {@code grid}, which must not have cells at negative coordinates. Cells it doesn't
+     * have, or holds null for, are closed on every side.
+     */
+    public static Maze of(Grid<? extends Number> grid) {
+        final Grid.Rect bounds = grid.bounds();
+        if (bounds.x() < 0 || bounds.y() < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Grid has cells at negative coordinates. [Bounds=%s]", bounds
+            ));
+        }
+
+        final int width = bounds.x() + bounds.width();
+        final int height = bounds.y() + bounds.height();
+
+        final byte[] openings = new byte[Math.multiplyExact(width, height)];
+        for (int y = bounds.y(); y < height; y++) {
+            for (int x = bounds.x(); x < width; x++) {
+                if (!grid.exists(x, y)) continue;
+                final Number value = grid.get(x, y);
+                if (value != null) openings[(y * width) + x] = (byte) (value.intValue() & 0xF);
+            }
+        }
+        return new Maze(width, height, openings);
+    }
+
+
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int cellCount() {
+        return openings.length;
+    }
+
+    public int openings(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the maze. [X=%d, Y=%d, Width=%d, Height=%d]", x, y, width, height
+            ));
+        }
+        return openings[(y * width) + x];
+    }
+
+    /**
+     * Whether (x, y) can be left through {@code side}, one of {@link #NORTH}, {@link #EAST}, {@link #SOUTH} or
+     * {@link #WEST}.
+     */
+    public boolean canMove(int x, int y, int side) {
+        return (openings(x, y) & side) != 0 && onBoard(x + dx(side), y + dy(side));
+    }
+
+
+
+    int openingsAt(int index) {
+        return openings[index];
+    }
+
+    boolean onBoard(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    static int dx(int side) {
+        return (side == EAST) ? 1 : (side == WEST) ? -1 : 0;
+    }
+
+    static int dy(int side) {
+        return (side == SOUTH) ? 1 : (side == NORTH) ? -1 : 0;
+    }
+
+    static int opposite(int side) {
+        // N <-> S and E <-> W are two bits apart.
+        return ((side << 2) | (side >>> 2)) & 0xF;
+    }
+
+}
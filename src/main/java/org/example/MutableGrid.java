@@ -0,0 +1,15 @@
+package org.example;
+
+public interface MutableGrid<T> extends Grid<T> {
+
+    /**
+     * Replaces the value at (x, y). Throws {@link IndexOutOfBoundsException} if the cell doesn't
+     * {@link #exists(int, int) exist}.
+     */
+    void set(int x, int y, T value);
+
+    default void set(V2 position, T value) {
+        set(position.x(), position.y(), value);
+    }
+
+}
@@ -0,0 +1,210 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps a {@link MutableGrid} and records which parts of it change, so renderers and other consumers can revisit only
+ * what changed rather than the whole grid.
+ * <p>
+ * Every effective {@link #set(int, int, Object)} bumps the grid's {@link #version()} and stamps the
+ * {@link #TILE_SIZE} square tile holding the cell with it. {@link #changedSince(long)} then answers "what changed after
+ * version N" from the tile stamps, which are only kept for tiles that have changed, so far apart writes to an
+ * unbounded grid cost no more than near ones. Listeners are told about each change, or once per
+ * {@link #batch(Runnable)} with everything it changed.
+ * <p>
+ * Only changes made through this wrapper are seen, writes straight to the source grid are not.
+ */
+public class ObservableGrid<T> extends AbstractGrid<T> implements MutableGrid<T> {
+
+    public static final int TILE_BITS = 4;
+    public static final int TILE_SIZE = 1 << TILE_BITS;
+
+    private final MutableGrid<T> source;
+    private final List<ChangeListener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    private long version;
+    /**
+     * Version each changed tile was last changed at, keyed by {@link #tileKey(int, int)}. The value is a one element
+     * array so restamping a tile doesn't box.
+     */
+    private final LongObjectMap<long[]> tileVersions = new LongObjectMap<>();
+
+    private int batchDepth;
+    private long batchStart;
+
+
+
+    public ObservableGrid(MutableGrid<T> source) {
+        this.source = source;
+    }
+
+
+
+    public MutableGrid<T> source() {
+        return source;
+    }
+
+    /**
+     * Starts at 0 and goes up by one for every cell changed.
+     */
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public T get(int x, int y) {
+        return source.get(x, y);
+    }
+
+    /**
+     * Setting a cell to the value it already holds is not a change.
+     */
+    @Override
+    public void set(int x, int y, T value) {
+        if (source.exists(x, y) ? Objects.equals(source.get(x, y), value) : value == null) return;
+
+        final long from = version;
+        source.set(x, y, value);
+        stamp(x, y, ++version);
+
+        if (batchDepth == 0) notifyListeners(from);
+    }
+
+    @Override
+    public boolean exists(int x, int y) {
+        return source.exists(x, y);
+    }
+
+    @Override
+    public int rayLength(int x, int y, int xIncrement, int yIncrement) {
+        return source.rayLength(x, y, xIncrement, yIncrement);
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    @Override
+    public Rect bounds() {
+        return source.bounds();
+    }
+
+    @Override
+    public Sequence<T> iterator() {
+        return source.iterator();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return source.spliterator();
+    }
+
+    @Override
+    public Spliterator<Locatable<T>> locatableSpliterator() {
+        return source.locatableSpliterator();
+    }
+
+    /**
+     * Runs {@code changes}, holding back notifications until it is done so listeners hear about all of it at once.
+     * Batches can nest, listeners are told when the outermost one ends.
+     */
+    public void batch(Runnable changes) {
+        if (batchDepth++ == 0) batchStart = version;
+        try {
+            changes.run();
+        } finally {
+            if (--batchDepth == 0 && version != batchStart) notifyListeners(batchStart);
+        }
+    }
+
+    /**
+     * Tiles changed after {@code since}, as rectangles in grid coordinates. Neighbouring tiles on the same row are
+     * merged. The rectangles cover whole tiles, so they may reach past the grid's bounds.
+     */
+    public List<Rect> changedSince(long since) {
+        final List<Rect> changed = new ArrayList<>();
+        if (since >= version) return changed;
+
+        final long[] dirty = new long[tileVersions.size()];
+        int count = 0;
+        for (int slot = tileVersions.nextSlot(0); slot >= 0; slot = tileVersions.nextSlot(slot + 1)) {
+            if (tileVersions.valueAt(slot)[0] > since) dirty[count++] = tileVersions.keyAt(slot);
+        }
+        Arrays.sort(dirty, 0, count);
+
+        int runStart = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i < count && dirty[i] == dirty[i - 1] + 1 && tileRow(dirty[i]) == tileRow(dirty[runStart])) continue;
+
+            changed.add(new Rect(
+                    tileColumn(dirty[runStart]) << TILE_BITS, tileRow(dirty[runStart]) << TILE_BITS,
+                    (i - runStart) << TILE_BITS, TILE_SIZE
+            ));
+            runStart = i;
+        }
+        return changed;
+    }
+
+    public void addChangeListener(ChangeListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+
+
+    private void notifyListeners(long from) {
+        if (listeners.isEmpty()) return;
+        final Change change = new Change(from, version, changedSince(from));
+        for (ChangeListener<T> listener : listeners) {
+            listener.gridChanged(this, change);
+        }
+    }
+
+    private void stamp(int x, int y, long stamp) {
+        final long key = tileKey(x >> TILE_BITS, y >> TILE_BITS);
+        final long[] tileVersion = tileVersions.get(key);
+        if (tileVersion != null) {
+            tileVersion[0] = stamp;
+        } else {
+            tileVersions.put(key, new long[] {stamp});
+        }
+    }
+
+    /**
+     * Packs a tile's position so that keys sort row-major, rows first and then columns, and neighbouring tiles on a
+     * row have consecutive keys. The column's sign bit is flipped so negative columns sort before positive ones.
+     */
+    private static long tileKey(int column, int row) {
+        return ((long) row << 32) | ((column ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private static int tileColumn(long key) {
+        return (int) key ^ Integer.MIN_VALUE;
+    }
+
+    private static int tileRow(long key) {
+        return (int) (key >> 32);
+    }
+
+
+
+    /**
+     * @param fromVersion the version before the change, so {@code changedSince(fromVersion)} gives {@code tiles}.
+     * @param tiles what {@link #changedSince(long)} returned for {@code fromVersion} when the change was made.
+     */
+    public record Change(long fromVersion, long toVersion, List<Rect> tiles) { }
+
+    public interface ChangeListener<T> {
+        void gridChanged(ObservableGrid<T> grid, Change change);
+    }
+
+}
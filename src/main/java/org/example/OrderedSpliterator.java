@@ -0,0 +1,143 @@
+package org.example;
+
+import org.example.Grid.Cursor;
+import org.example.Grid.Rect;
+import org.example.RowMajorSpliterator.CellReader;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splittable spliterator over the cells of a rectangle in a {@link TraversalOrder}. Splits cut the order's numbering in
+ * two, so each part is a contiguous run of the order and keeps its locality. The size is exact, counted from the
+ * order's numbering, unless a filter is given for grids with holes, in which case it is only an upper bound.
+ * <p>
+ * The rectangle is captured on creation, a grid that gains or loses cells afterwards isn't reflected.
+ */
+public class OrderedSpliterator<R> implements Spliterator<R> {
+
+    /**
+     * Don't bother splitting ranges smaller than this, the fork overhead would outweigh the work.
+     */
+    private static final long MIN_SPLIT = 1024;
+
+    private final TraversalOrder.Layout layout;
+    private final int originX;
+    private final int originY;
+    private final CellReader<R> reader;
+    private final CellFilter filter;
+    private final int characteristics;
+
+    private long index;
+    private final long end;
+    /**
+     * Cells of the rectangle left in [index, end), before filtering.
+     */
+    private long size;
+
+
+
+    private OrderedSpliterator(
+            TraversalOrder.Layout layout, int originX, int originY, CellReader<R> reader, CellFilter filter,
+            int characteristics, long index, long end, long size
+    ) {
+        this.layout = layout;
+        this.originX = originX;
+        this.originY = originY;
+        this.reader = reader;
+        this.filter = filter;
+        this.characteristics = characteristics;
+        this.index = index;
+        this.end = end;
+        this.size = size;
+    }
+
+    public static <R> OrderedSpliterator<R> of(
+            TraversalOrder order, Rect bounds, CellReader<R> reader, int characteristics
+    ) {
+        return filtered(order, bounds, reader, null, characteristics);
+    }
+
+    /**
+     * @param filter cells it rejects are skipped, or null to read every cell of the rectangle.
+     */
+    public static <R> OrderedSpliterator<R> filtered(
+            TraversalOrder order, Rect bounds, CellReader<R> reader, CellFilter filter, int characteristics
+    ) {
+        final int width = Math.max(0, bounds.width());
+        final int height = Math.max(0, bounds.height());
+        final TraversalOrder.Layout layout = order.layout(width, height);
+        final long end = bounds.isEmpty() ? 0 : layout.span();
+        final int sized = (filter == null) ? SIZED | SUBSIZED : 0;
+        return new OrderedSpliterator<>(
+                layout, bounds.x(), bounds.y(), reader, filter,
+                characteristics | ORDERED | sized, 0, end, bounds.area()
+        );
+    }
+
+
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+        while (true) {
+            index = layout.nextInside(index, end);
+            if (index >= end) return false;
+
+            final long point = layout.point(index++);
+            size--;
+            final int x = originX + Cursor.unpackX(point);
+            final int y = originY + Cursor.unpackY(point);
+            if (filter != null && !filter.test(x, y)) continue;
+
+            action.accept(reader.read(x, y));
+            return true;
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super R> action) {
+        long current = index;
+        while ((current = layout.nextInside(current, end)) < end) {
+            final long point = layout.point(current++);
+            final int x = originX + Cursor.unpackX(point);
+            final int y = originY + Cursor.unpackY(point);
+            if (filter == null || filter.test(x, y)) action.accept(reader.read(x, y));
+        }
+        index = end;
+        size = 0;
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+        if (size < MIN_SPLIT) return null;
+
+        final long split = layout.split(index, end);
+        if (split < 0) return null;
+
+        final long prefixSize = layout.count(index, split);
+        final OrderedSpliterator<R> prefix = new OrderedSpliterator<>(
+                layout, originX, originY, reader, filter, characteristics, index, split, prefixSize
+        );
+        index = split;
+        size -= prefixSize;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+
+
+    @FunctionalInterface
+    public interface CellFilter {
+        boolean test(int x, int y);
+    }
+
+}
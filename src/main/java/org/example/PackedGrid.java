@@ -0,0 +1,347 @@
+package org.example;
+
+import java.util.Spliterator;
+
+/**
+ * Dense, regular grid of small unsigned values, 1, 2, 4 or 8 bits each, packed into {@code long} words. A one bit grid
+ * is an occupancy bitmap and a four bit one holds a {@link Maze}'s walls, at a sixty fourth and a sixteenth of the
+ * memory of an {@link IntGrid}.
+ * <p>
+ * Each row starts on a fresh word, so a row is a run of whole words and the bulk operations, {@link #apply} and
+ * {@link #popCount}, work on 64 bits at a time, masking only the words at a region's left and right edges. Use
+ * {@link #getBits(int, int)} and {@link #setBits(int, int, int)} on hot paths, the {@link Grid} accessors box.
+ */
+public class PackedGrid extends AbstractGrid<Integer> implements MutableGrid<Integer> {
+
+    private final int width;
+    private final int height;
+    private final int bitsPerCell;
+    private final int cellsPerWord;
+    private final int wordsPerRow;
+    private final int cellMask;
+    private final long[] words;
+
+
+
+    protected PackedGrid(int width, int height, int bitsPerCell) {
+        if (bitsPerCell != 1 && bitsPerCell != 2 && bitsPerCell != 4 && bitsPerCell != 8) {
+            throw new IllegalArgumentException(String.format(
+                    "Cells must be 1, 2, 4 or 8 bits. [BitsPerCell=%d]", bitsPerCell
+            ));
+        }
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Negative grid size. [Width=%d, Height=%d]", width, height
+            ));
+        }
+
+        this.width = width;
+        this.height = height;
+        this.bitsPerCell = bitsPerCell;
+        this.cellsPerWord = Long.SIZE / bitsPerCell;
+        this.wordsPerRow = (width + cellsPerWord - 1) / cellsPerWord;
+        this.cellMask = (1 << bitsPerCell) - 1;
+
+        final long length = (long) wordsPerRow * height;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(String.format(
+                    "Grid size can't be backed by a single array. [Width=%d, Height=%d, BitsPerCell=%d]",
+                    width, height, bitsPerCell
+            ));
+        }
+        this.words = new long[(int) length];
+    }
+
+    /**
+     * A grid with every cell zero.
+     */
+    public static PackedGrid of(int width, int height, int bitsPerCell) {
+        return new PackedGrid(width, height, bitsPerCell);
+    }
+
+    /**
+     * Packs {@code grid}, which must not have cells at negative coordinates. Cells it doesn't have, or holds null for,
+     * are zero, and values that don't fit in {@code bitsPerCell} throw.
+     */
+    public static PackedGrid copyOf(Grid<? extends Number> grid, int bitsPerCell) {
+        final Rect bounds = grid.bounds();
+        if (bounds.x() < 0 || bounds.y() < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Grid has cells at negative coordinates. [Bounds=%s]", bounds
+            ));
+        }
+
+        final PackedGrid packed = of(bounds.x() + bounds.width(), bounds.y() + bounds.height(), bitsPerCell);
+        grid.forEachCell((x, y, value) -> {
+            if (value != null) packed.setBits(x, y, value.intValue());
+        });
+        return packed;
+    }
+
+
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int bitsPerCell() {
+        return bitsPerCell;
+    }
+
+    public long cellCount() {
+        return (long) width * height;
+    }
+
+    public int getBits(int x, int y) {
+        checkCell(x, y);
+        return (int) (words[wordIndex(x, y)] >>> shift(x)) & cellMask;
+    }
+
+    public void setBits(int x, int y, int value) {
+        checkCell(x, y);
+        checkValue(value);
+        final int index = wordIndex(x, y);
+        final int shift = shift(x);
+        words[index] = (words[index] & ~((long) cellMask << shift)) | ((long) value << shift);
+    }
+
+    @Override
+    public Integer get(int x, int y) {
+        return getBits(x, y);
+    }
+
+    /**
+     * Null is stored as zero, the same as {@link #copyOf} treats it.
+     */
+    @Override
+    public void set(int x, int y, Integer value) {
+        setBits(x, y, (value == null) ? 0 : value);
+    }
+
+    @Override
+    public boolean exists(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    @Override
+    public int rayLength(int x, int y, int xIncrement, int yIncrement) {
+        return Math.min(stepsWithin(x, xIncrement, 0, width), stepsWithin(y, yIncrement, 0, height));
+    }
+
+    /**
+     * Capped at {@link Integer#MAX_VALUE} as per {@link java.util.Collection#size()}, see {@link #cellCount()}.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, cellCount());
+    }
+
+    @Override
+    public Rect bounds() {
+        return new Rect(0, 0, width, height);
+    }
+
+    @Override
+    public Sequence<Integer> iterator() {
+        final V2 start = (width > 0 && height > 0) ? new V2(0, 0) : null;
+        return new Itor<>(this, new RowMajorPattern(width, height), start);
+    }
+
+    @Override
+    public Spliterator<Integer> spliterator() {
+        return RowMajorSpliterator.regular(width, height, this::getBits, Spliterator.NONNULL);
+    }
+
+    @Override
+    public Spliterator<Locatable<Integer>> locatableSpliterator() {
+        return RowMajorSpliterator.regular(
+                width, height, (x, y) -> new LocationPair<>(getBits(x, y), new V2(x, y)), Spliterator.NONNULL
+        );
+    }
+
+    /**
+     * Sets every cell to {@code value}.
+     */
+    public void fill(int value) {
+        fill(0, 0, width, height, value);
+    }
+
+    /**
+     * Sets every cell of the region to {@code value}, a word at a time.
+     */
+    public void fill(int x, int y, int width, int height, int value) {
+        checkValue(value);
+        checkRegion(x, y, width, height);
+        long pattern = value;
+        for (int bits = bitsPerCell; bits < Long.SIZE; bits <<= 1) {
+            pattern |= pattern << bits;
+        }
+
+        final long filled = pattern;
+        forEachWord(x, y, width, height, (index, mask) -> words[index] = (words[index] & ~mask) | (filled & mask));
+    }
+
+    /**
+     * Combines every cell with the matching cell of {@code other}, in place, see {@link #apply(Op, PackedGrid, int,
+     * int, int, int)}.
+     */
+    public void apply(Op op, PackedGrid other) {
+        checkShape(other);
+        // The padding bits past the end of each row are zero in both grids, and every op keeps them zero.
+        for (int i = 0; i < words.length; i++) {
+            words[i] = op.combine(words[i], other.words[i]);
+        }
+    }
+
+    /**
+     * Combines each cell of the region with the cell at the same position in {@code other}, which must be the same size
+     * and cell width, bit by bit. Whole words in the middle of each row are combined 64 bits at a time.
+     */
+    public void apply(Op op, PackedGrid other, int x, int y, int width, int height) {
+        checkShape(other);
+        checkRegion(x, y, width, height);
+        forEachWord(x, y, width, height, (index, mask) -> {
+            final long combined = op.combine(words[index], other.words[index]);
+            words[index] = (words[index] & ~mask) | (combined & mask);
+        });
+    }
+
+    /**
+     * Number of one bits across the whole grid. In a one bit grid that is the number of cells set.
+     */
+    public long popCount() {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Number of one bits in the cells of the region.
+     */
+    public long popCount(int x, int y, int width, int height) {
+        checkRegion(x, y, width, height);
+        final long[] count = new long[1];
+        forEachWord(x, y, width, height, (index, mask) -> count[0] += Long.bitCount(words[index] & mask));
+        return count[0];
+    }
+
+
+
+    private int wordIndex(int x, int y) {
+        return (y * wordsPerRow) + (x / cellsPerWord);
+    }
+
+    private int shift(int x) {
+        return (x % cellsPerWord) * bitsPerCell;
+    }
+
+    /**
+     * Calls {@code action} for each word holding cells of the region, with a mask of the bits that belong to it.
+     */
+    private void forEachWord(int x, int y, int width, int height, WordAction action) {
+        if (width == 0 || height == 0) return;
+
+        final int firstWord = x / cellsPerWord;
+        final int lastWord = (x + width - 1) / cellsPerWord;
+        final long firstMask = -1L << shift(x);
+        final int endShift = shift(x + width - 1) + bitsPerCell;
+        final long lastMask = (endShift == Long.SIZE) ? -1L : ~(-1L << endShift);
+
+        for (int row = y; row < y + height; row++) {
+            final int rowStart = row * wordsPerRow;
+            if (firstWord == lastWord) {
+                action.accept(rowStart + firstWord, firstMask & lastMask);
+                continue;
+            }
+            action.accept(rowStart + firstWord, firstMask);
+            for (int word = firstWord + 1; word < lastWord; word++) {
+                action.accept(rowStart + word, -1L);
+            }
+            action.accept(rowStart + lastWord, lastMask);
+        }
+    }
+
+    private void checkCell(int x, int y) {
+        if (!exists(x, y)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the grid. [X=%d, Y=%d, Width=%d, Height=%d]", x, y, this.width, this.height
+            ));
+        }
+    }
+
+    private void checkValue(int value) {
+        if ((value & ~cellMask) != 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Value doesn't fit in a cell. [Value=%d, BitsPerCell=%d]", value, bitsPerCell
+            ));
+        }
+    }
+
+    private void checkRegion(int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || width < 0 || height < 0
+                || (long) x + width > this.width || (long) y + height > this.height) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Region is outside the grid. [X=%d, Y=%d, Width=%d, Height=%d, GridWidth=%d, GridHeight=%d]",
+                    x, y, width, height, this.width, this.height
+            ));
+        }
+    }
+
+    private void checkShape(PackedGrid other) {
+        if (other.width != width || other.height != height || other.bitsPerCell != bitsPerCell) {
+            throw new IllegalArgumentException(String.format(
+                    "Grids differ in shape. [This=%dx%dx%d, Other=%dx%dx%d]",
+                    width, height, bitsPerCell, other.width, other.height, other.bitsPerCell
+            ));
+        }
+    }
+
+
+
+    /**
+     * Bitwise ways to combine two grids' cells.
+     */
+    public enum Op {
+        AND {
+            @Override
+            long combine(long a, long b) {
+                return a & b;
+            }
+        },
+        OR {
+            @Override
+            long combine(long a, long b) {
+                return a | b;
+            }
+        },
+        XOR {
+            @Override
+            long combine(long a, long b) {
+                return a ^ b;
+            }
+        },
+        /**
+         * Clears the bits set in the other grid.
+         */
+        AND_NOT {
+            @Override
+            long combine(long a, long b) {
+                return a & ~b;
+            }
+        };
+
+        abstract long combine(long a, long b);
+    }
+
+    @FunctionalInterface
+    private interface WordAction {
+        void accept(int index, long mask);
+    }
+
+}
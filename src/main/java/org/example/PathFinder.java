@@ -0,0 +1,434 @@
+package org.example;
+
+import org.example.Grid.V2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.example.Maze.EAST;
+import static org.example.Maze.NORTH;
+import static org.example.Maze.SOUTH;
+import static org.example.Maze.WEST;
+
+/**
+ * Shortest paths through a {@link Maze}. Searches work on flat cell indices with primitive queues and heaps, a bitset
+ * of visited cells and flat parent and distance arrays, all held in a {@link SearchContext}. Reusing a context across
+ * queries means a search allocates nothing unless the heap has to grow.
+ * <p>
+ * Every search returns the cost of the path found, or -1 if the target can't be reached, and leaves the path itself
+ * in the context. A finder is immutable and can be shared between threads, contexts can't.
+ */
+public final class PathFinder {
+
+    private static final int[] SIDES = {NORTH, EAST, SOUTH, WEST};
+
+    private final Maze maze;
+    private final int width;
+    private final int height;
+    /**
+     * Index delta for a move through each of {@link #SIDES}.
+     */
+    private final int[] steps;
+
+
+
+    public PathFinder(Maze maze) {
+        this.maze = maze;
+        this.width = maze.width();
+        this.height = maze.height();
+        this.steps = new int[] {-width, 1, width, -1};
+    }
+
+
+
+    public Maze maze() {
+        return maze;
+    }
+
+    public SearchContext newContext() {
+        return new SearchContext(width, height);
+    }
+
+    /**
+     * Fewest moves, every move costing one.
+     */
+    public int breadthFirst(SearchContext context, int fromX, int fromY, int toX, int toY) {
+        final int from = checkedIndex(context, fromX, fromY);
+        final int to = checkedIndex(context, toX, toY);
+        context.reset();
+
+        final int[] queue = context.queue;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        context.see(from, -1, 0);
+
+        while (head < tail) {
+            final int current = queue[head++];
+            if (current == to) return context.finish(from, to);
+
+            final int x = current % width;
+            final int y = current / width;
+            for (int side = 0; side < SIDES.length; side++) {
+                if (!canMove(current, x, y, side)) continue;
+                final int next = current + steps[side];
+                if (context.seen(next)) continue;
+                context.see(next, current, context.distance[current] + 1);
+                queue[tail++] = next;
+            }
+        }
+        return context.fail();
+    }
+
+    /**
+     * Cheapest path with per move costs, which must not be negative.
+     */
+    public int dijkstra(SearchContext context, int fromX, int fromY, int toX, int toY, MoveCost cost) {
+        return bestFirst(context, fromX, fromY, toX, toY, cost, false);
+    }
+
+    /**
+     * Cheapest path guided by Manhattan distance to the target. The path is only guaranteed cheapest when every move
+     * costs at least one.
+     */
+    public int aStar(SearchContext context, int fromX, int fromY, int toX, int toY, MoveCost cost) {
+        return bestFirst(context, fromX, fromY, toX, toY, cost, true);
+    }
+
+    /**
+     * Fewest moves, as {@link #breadthFirst}, but searching over jump points. From each point the search runs
+     * straight down every corridor, a cell open only ahead and behind, and only stops at cells where there is a
+     * choice to make: junctions, turns and the target. Dead ends are dropped without being queued. Long corridors,
+     * which is most of a maze, are crossed without touching the heap, and the path found is still a shortest one.
+     */
+    public int jumpPoint(SearchContext context, int fromX, int fromY, int toX, int toY) {
+        final int from = checkedIndex(context, fromX, fromY);
+        final int to = checkedIndex(context, toX, toY);
+        context.reset();
+
+        final LongHeap open = context.open;
+        context.see(from, -1, 0);
+        open.push(priority(heuristic(from, to), from));
+
+        while (!open.isEmpty()) {
+            final int current = (int) open.pop();
+            if (context.closed(current)) continue;
+            context.close(current);
+            if (current == to) return context.finish(from, to);
+
+            final int x = current % width;
+            final int y = current / width;
+            for (int side = 0; side < SIDES.length; side++) {
+                if (!canMove(current, x, y, side)) continue;
+
+                // Run down the corridor until there is something to decide.
+                final int corridor = SIDES[side] | Maze.opposite(SIDES[side]);
+                int next = current + steps[side];
+                int nextX = x + Maze.dx(SIDES[side]);
+                int nextY = y + Maze.dy(SIDES[side]);
+                int length = 1;
+                while (next != to && maze.openingsAt(next) == corridor && canMove(next, nextX, nextY, side)) {
+                    next += steps[side];
+                    nextX += Maze.dx(SIDES[side]);
+                    nextY += Maze.dy(SIDES[side]);
+                    length++;
+                }
+                if (next != to && maze.openingsAt(next) == Maze.opposite(SIDES[side])) continue;
+
+                relax(context, current, next, context.distance[current] + length, to, true);
+            }
+        }
+        return context.fail();
+    }
+
+
+
+    private int bestFirst(
+            SearchContext context, int fromX, int fromY, int toX, int toY, MoveCost cost, boolean guided
+    ) {
+        final int from = checkedIndex(context, fromX, fromY);
+        final int to = checkedIndex(context, toX, toY);
+        context.reset();
+
+        final LongHeap open = context.open;
+        context.see(from, -1, 0);
+        open.push(priority(guided ? heuristic(from, to) : 0, from));
+
+        while (!open.isEmpty()) {
+            final int current = (int) open.pop();
+            if (context.closed(current)) continue;
+            context.close(current);
+            if (current == to) return context.finish(from, to);
+
+            final int x = current % width;
+            final int y = current / width;
+            for (int side = 0; side < SIDES.length; side++) {
+                if (!canMove(current, x, y, side)) continue;
+                final int next = current + steps[side];
+                final int nextX = x + Maze.dx(SIDES[side]);
+                final int nextY = y + Maze.dy(SIDES[side]);
+
+                final int moveCost = cost.cost(x, y, nextX, nextY);
+                if (moveCost < 0) {
+                    throw new IllegalArgumentException(String.format(
+                            "Negative move cost. [FromX=%d, FromY=%d, ToX=%d, ToY=%d, Cost=%d]",
+                            x, y, nextX, nextY, moveCost
+                    ));
+                }
+                relax(context, current, next, context.distance[current] + moveCost, to, guided);
+            }
+        }
+        return context.fail();
+    }
+
+    private void relax(SearchContext context, int current, int next, int distance, int to, boolean guided) {
+        if (context.closed(next)) return;
+        if (context.seen(next) && context.distance[next] <= distance) return;
+
+        context.see(next, current, distance);
+        context.open.push(priority(distance + (guided ? heuristic(next, to) : 0), next));
+    }
+
+    private boolean canMove(int index, int x, int y, int side) {
+        if ((maze.openingsAt(index) & SIDES[side]) == 0) return false;
+        return maze.onBoard(x + Maze.dx(SIDES[side]), y + Maze.dy(SIDES[side]));
+    }
+
+    private int heuristic(int index, int to) {
+        return Math.abs((index % width) - (to % width)) + Math.abs((index / width) - (to / width));
+    }
+
+    private int checkedIndex(SearchContext context, int x, int y) {
+        if (context.width != width || context.height != height) {
+            throw new IllegalArgumentException(String.format(
+                    "Search context is for a different sized maze. [Context=%dx%d, Maze=%dx%d]",
+                    context.width, context.height, width, height
+            ));
+        }
+        if (!maze.onBoard(x, y)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the maze. [X=%d, Y=%d, Width=%d, Height=%d]", x, y, width, height
+            ));
+        }
+        return (y * width) + x;
+    }
+
+    /**
+     * Heap entries are the priority in the high half and the cell in the low half, so ties go to the lower index and
+     * the order is deterministic.
+     */
+    private static long priority(int priority, int index) {
+        return ((long) priority << 32) | index;
+    }
+
+
+
+    @FunctionalInterface
+    public interface MoveCost {
+        MoveCost UNIFORM = (fromX, fromY, toX, toY) -> 1;
+
+        int cost(int fromX, int fromY, int toX, int toY);
+    }
+
+    /**
+     * Scratch state for searches over mazes of one size, plus the result of the last search. Not thread safe.
+     */
+    public static final class SearchContext {
+
+        private final int width;
+        private final int height;
+        private final int[] parent;
+        private final int[] distance;
+        private final long[] seen;
+        private final long[] closed;
+        private final int[] queue;
+        private final LongHeap open = new LongHeap(64);
+        /**
+         * The last path, from start to target, in its first {@link #pathLength} slots.
+         */
+        private final int[] path;
+        private int pathLength;
+        private int cost = -1;
+
+
+
+        private SearchContext(int width, int height) {
+            final int cells = Math.multiplyExact(width, height);
+            this.width = width;
+            this.height = height;
+            this.parent = new int[cells];
+            this.distance = new int[cells];
+            this.seen = new long[(cells + 63) >>> 6];
+            this.closed = new long[seen.length];
+            this.queue = new int[cells];
+            this.path = new int[cells];
+        }
+
+
+
+        /**
+         * Cost of the last path found, or -1 if the last search failed.
+         */
+        public int cost() {
+            return cost;
+        }
+
+        /**
+         * Number of cells on the last path, both ends included, 0 if the last search failed.
+         */
+        public int pathLength() {
+            return pathLength;
+        }
+
+        public int pathX(int step) {
+            return pathIndex(step) % width;
+        }
+
+        public int pathY(int step) {
+            return pathIndex(step) / width;
+        }
+
+        /**
+         * Allocating copy of the last path, for when convenience matters more than garbage.
+         */
+        public List<V2> path() {
+            final List<V2> copy = new ArrayList<>(pathLength);
+            for (int step = 0; step < pathLength; step++) {
+                copy.add(new V2(pathX(step), pathY(step)));
+            }
+            return copy;
+        }
+
+
+
+        private int pathIndex(int step) {
+            if (step < 0 || step >= pathLength) {
+                throw new IndexOutOfBoundsException(String.format(
+                        "Step is not on the path. [Step=%d, PathLength=%d]", step, pathLength
+                ));
+            }
+            return path[step];
+        }
+
+        private void reset() {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            open.clear();
+            pathLength = 0;
+            cost = -1;
+        }
+
+        private boolean seen(int index) {
+            return (seen[index >>> 6] & (1L << index)) != 0;
+        }
+
+        private void see(int index, int parentIndex, int distanceTo) {
+            seen[index >>> 6] |= 1L << index;
+            parent[index] = parentIndex;
+            distance[index] = distanceTo;
+        }
+
+        private boolean closed(int index) {
+            return (closed[index >>> 6] & (1L << index)) != 0;
+        }
+
+        private void close(int index) {
+            closed[index >>> 6] |= 1L << index;
+        }
+
+        private int fail() {
+            pathLength = 0;
+            cost = -1;
+            return cost;
+        }
+
+        /**
+         * Walks the parents back from {@code to}, filling in the straight runs between jump points, then flips the
+         * path round to run from {@code from}.
+         */
+        private int finish(int from, int to) {
+            int length = 0;
+            int current = to;
+            while (current != from) {
+                final int previous = parent[current];
+                final int step = stepBetween(previous, current);
+                for (int cell = current; cell != previous; cell -= step) {
+                    path[length++] = cell;
+                }
+                current = previous;
+            }
+            path[length++] = from;
+
+            for (int i = 0, j = length - 1; i < j; i++, j--) {
+                final int swap = path[i];
+                path[i] = path[j];
+                path[j] = swap;
+            }
+            pathLength = length;
+            cost = distance[to];
+            return cost;
+        }
+
+        private int stepBetween(int from, int to) {
+            if (from / width == to / width) return (to > from) ? 1 : -1;
+            return (to > from) ? width : -width;
+        }
+
+    }
+
+    /**
+     * Binary min-heap of longs.
+     */
+    private static final class LongHeap {
+
+        private long[] heap;
+        private int size;
+
+
+
+        private LongHeap(int capacity) {
+            heap = new long[capacity];
+        }
+
+
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void push(long value) {
+            if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+            int i = size++;
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (heap[parent] <= value) break;
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            final long top = heap[0];
+            final long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = (2 * i) + 1;
+                if (child >= size) break;
+                if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+                if (heap[child] >= last) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package org.example;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splittable, exactly sized spliterator over a ray whose length is known up front, see
+ * {@link Grid#rayLength(int, int, int, int)}. Cells are read by their step along the ray, so the reader can be a
+ * strided index into a flat array as easily as a coordinate lookup, and nothing is bounds checked per step.
+ */
+public class RaySpliterator<R> implements Spliterator<R> {
+
+    /**
+     * Don't bother splitting rays shorter than this, the fork overhead would outweigh the work.
+     */
+    private static final int MIN_SPLIT = 1024;
+
+    private final StepReader<R> reader;
+    private final int characteristics;
+
+    private int step;
+    private final int end;
+
+
+
+    private RaySpliterator(StepReader<R> reader, int characteristics, int step, int end) {
+        this.reader = reader;
+        this.characteristics = characteristics | ORDERED | SIZED | SUBSIZED;
+        this.step = step;
+        this.end = end;
+    }
+
+    /**
+     * @param length number of cells on the ray, every step in [0, length) must be readable.
+     */
+    public static <R> RaySpliterator<R> of(int length, StepReader<R> reader, int characteristics) {
+        return new RaySpliterator<>(reader, characteristics, 0, length);
+    }
+
+
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+        if (step >= end) return false;
+        action.accept(reader.read(step++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super R> action) {
+        for (int i = step; i < end; i++) {
+            action.accept(reader.read(i));
+        }
+        step = end;
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+        final int remaining = end - step;
+        if (remaining < MIN_SPLIT) return null;
+
+        final int middle = step + (remaining / 2);
+        final RaySpliterator<R> prefix = new RaySpliterator<>(reader, characteristics, step, middle);
+        step = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - step;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+
+
+    @FunctionalInterface
+    public interface StepReader<R> {
+        R read(int step);
+    }
+
+}
@@ -0,0 +1,131 @@
+package org.example;
+
+import java.util.Optional;
+
+/**
+ * Live, zero-copy view of a rectangle of another grid, see {@link Grid#region(int, int, int, int)}. Writes go through
+ * to the source when it is a {@link MutableGrid}.
+ */
+public class RegionView<T> extends AbstractGrid<T> implements MutableGrid<T> {
+
+    private final Grid<T> source;
+    private final int xOffset;
+    private final int yOffset;
+    private final int width;
+    private final int height;
+
+
+
+    public RegionView(Grid<T> source, int x, int y, int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Negative region size. [Width=%d, Height=%d]", width, height
+            ));
+        }
+        this.source = source;
+        this.xOffset = x;
+        this.yOffset = y;
+        this.width = width;
+        this.height = height;
+    }
+
+
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public T get(int x, int y) {
+        if (!exists(x, y)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the region. [X=%d, Y=%d, Width=%d, Height=%d]", x, y, width, height
+            ));
+        }
+        return source.get(xOffset + x, yOffset + y);
+    }
+
+    @Override
+    public void set(int x, int y, T value) {
+        if (!(source instanceof MutableGrid<T> mutable)) {
+            throw new UnsupportedOperationException(String.format(
+                    "Source grid is read only. [Source=%s]", source.getClass().getName()
+            ));
+        }
+        if (!exists(x, y)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the region. [X=%d, Y=%d, Width=%d, Height=%d]", x, y, width, height
+            ));
+        }
+        mutable.set(xOffset + x, yOffset + y, value);
+    }
+
+    @Override
+    public boolean exists(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && source.exists(xOffset + x, yOffset + y);
+    }
+
+    /**
+     * The ray clipped to the region, then to what the source has along it.
+     */
+    @Override
+    public int rayLength(int x, int y, int xIncrement, int yIncrement) {
+        final int clipped = Math.min(stepsWithin(x, xIncrement, 0, width), stepsWithin(y, yIncrement, 0, height));
+        if (clipped == 0) return 0;
+        return Math.min(clipped, source.rayLength(xOffset + x, yOffset + y, xIncrement, yIncrement));
+    }
+
+    @Override
+    public Rect bounds() {
+        return new Rect(0, 0, width, height);
+    }
+
+    @Override
+    public int size() {
+        // Live view, so this can't be cached.
+        int size = 0;
+        final Sequence<T> sequence = iterator();
+        final Cursor cursor = new Cursor();
+        while (sequence.nextLocation(cursor)) size++;
+        return size;
+    }
+
+    @Override
+    public Sequence<T> iterator() {
+        final Pattern allItems = new AllItemsPattern();
+        final Cursor start = new Cursor(-1, 0);
+        if (!allItems.step(start)) return new Itor<>(this, allItems, null);
+        return new Itor<>(this, allItems, start.toV2());
+    }
+
+
+
+    /**
+     * Row-major walk over the region that skips cells missing from the source.
+     */
+    private class AllItemsPattern implements Pattern {
+        @Override
+        public Optional<V2> next(V2 current) {
+            final Cursor cursor = new Cursor(current);
+            return step(cursor) ? Optional.of(cursor.toV2()) : Optional.empty();
+        }
+
+        @Override
+        public boolean step(Cursor cursor) {
+            int x = cursor.x() + 1;
+            for (int y = cursor.y(); y < height; y++, x = 0) {
+                for (; x < width; x++) {
+                    if (!source.exists(xOffset + x, yOffset + y)) continue;
+                    cursor.set(x, y);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splittable, exactly sized spliterator over every cell of a grid in row-major order. The cells are treated as one flat
+ * range of indexes which is halved on each split, rounding to a row boundary where one is available, so parallel
+ * streams get even row bands.
+ * <p>
+ * The shape of the grid is captured on creation, a grid that gains or loses cells afterwards isn't reflected.
+ */
+public class RowMajorSpliterator<R> implements Spliterator<R> {
+
+    /**
+     * Don't bother splitting ranges smaller than this, the fork overhead would outweigh the work.
+     */
+    private static final long MIN_SPLIT = 1024;
+
+    private final CellReader<R> reader;
+    private final int width;
+    /**
+     * Index of the first cell of each row, with a trailing entry for the total. Null for regular grids, where it is
+     * just a multiple of {@link #width}.
+     */
+    private final long[] rowStarts;
+    private final int characteristics;
+
+    private long index;
+    private final long end;
+
+    private int x;
+    private int y;
+
+
+
+    private RowMajorSpliterator(
+            CellReader<R> reader, int width, long[] rowStarts, int characteristics, long index, long end
+    ) {
+        this.reader = reader;
+        this.width = width;
+        this.rowStarts = rowStarts;
+        this.characteristics = characteristics | ORDERED | SIZED | SUBSIZED;
+        this.index = index;
+        this.end = end;
+        seek(index);
+    }
+
+    public static <R> RowMajorSpliterator<R> regular(
+            int width, int height, CellReader<R> reader, int characteristics
+    ) {
+        return new RowMajorSpliterator<>(reader, width, null, characteristics, 0, (long) width * height);
+    }
+
+    /**
+     * @param rowStarts see {@link #rowStarts(int[])}.
+     */
+    public static <R> RowMajorSpliterator<R> jagged(long[] rowStarts, CellReader<R> reader, int characteristics) {
+        return new RowMajorSpliterator<>(reader, -1, rowStarts, characteristics, 0, rowStarts[rowStarts.length - 1]);
+    }
+
+    /**
+     * Turns row lengths into the running totals {@link #jagged} expects, with one extra trailing entry for the total.
+     */
+    public static long[] rowStarts(int[] rowLengths) {
+        final long[] rowStarts = new long[rowLengths.length + 1];
+        for (int y = 0; y < rowLengths.length; y++) {
+            rowStarts[y + 1] = rowStarts[y] + rowLengths[y];
+        }
+        return rowStarts;
+    }
+
+
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+        if (index >= end) return false;
+
+        action.accept(reader.read(x, y));
+        index++;
+        x++;
+        if (index < end && x == rowLength(y)) seek(index);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super R> action) {
+        // Row at a time, so the inner loop is a plain counted loop.
+        while (index < end) {
+            final int stop = (int) Math.min(rowLength(y), x + (end - index));
+            for (int i = x; i < stop; i++) {
+                action.accept(reader.read(i, y));
+            }
+            index += stop - x;
+            seek(index);
+        }
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+        final long remaining = end - index;
+        if (remaining < MIN_SPLIT) return null;
+
+        final long mid = rowAligned(index + (remaining / 2));
+        final RowMajorSpliterator<R> prefix =
+                new RowMajorSpliterator<>(reader, width, rowStarts, characteristics, index, mid);
+        index = mid;
+        seek(index);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+
+
+    private int rowLength(int row) {
+        if (rowStarts == null) return width;
+        return (int) (rowStarts[row + 1] - rowStarts[row]);
+    }
+
+    /**
+     * Moves x and y to the cell at {@code target}, skipping empty rows.
+     */
+    private void seek(long target) {
+        if (target >= end) return;
+
+        if (rowStarts == null) {
+            y = (int) (target / width);
+            x = (int) (target - ((long) y * width));
+            return;
+        }
+
+        int row = Arrays.binarySearch(rowStarts, target);
+        if (row < 0) {
+            row = -row - 2;
+        } else {
+            // Several rows can start at the same index if some are empty, we want the last of them.
+            while (row + 1 < rowStarts.length - 1 && rowStarts[row + 1] == target) row++;
+        }
+        y = row;
+        x = (int) (target - rowStarts[row]);
+    }
+
+    /**
+     * Rounds {@code target} to the start of its row, if that is still strictly inside the remaining range.
+     */
+    private long rowAligned(long target) {
+        final long rowStart;
+        if (rowStarts == null) {
+            rowStart = (target / width) * width;
+        } else {
+            final int row = Arrays.binarySearch(rowStarts, target);
+            rowStart = (row >= 0) ? target : rowStarts[-row - 2];
+        }
+        return (rowStart > index) ? rowStart : target;
+    }
+
+
+
+    @FunctionalInterface
+    public interface CellReader<R> {
+        R read(int x, int y);
+    }
+
+}
@@ -0,0 +1,201 @@
+package org.example;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Unbounded grid that only stores occupied cells, so memory scales with the number of cells set rather than the area
+ * they cover. Any coordinate is allowed, negative ones included. A cell exists once it has been set to a non-null value
+ * and stops existing when it is set back to null or removed.
+ * <p>
+ * Cells live in a {@link LongObjectMap} keyed by {@link Cursor#pack(int, int)}. Iteration visits only the occupied
+ * cells, but in hash order rather than row-major order.
+ */
+public class SparseGrid<T> extends AbstractGrid<T> implements MutableGrid<T> {
+
+    private final LongObjectMap<T> cells;
+
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+    /**
+     * Set when a removal may have shrunk the bounding box, it is recomputed on the next {@link #bounds()}.
+     */
+    private boolean boundsStale;
+
+
+
+    public SparseGrid() {
+        this(16);
+    }
+
+    public SparseGrid(int expectedSize) {
+        cells = new LongObjectMap<>(expectedSize);
+    }
+
+
+
+    /**
+     * The value at (x, y), or null if the cell isn't occupied.
+     */
+    @Override
+    public T get(int x, int y) {
+        return cells.get(Cursor.pack(x, y));
+    }
+
+    /**
+     * Setting a cell to null removes it.
+     */
+    @Override
+    public void set(int x, int y, T value) {
+        if (value == null) {
+            remove(x, y);
+            return;
+        }
+
+        final boolean wasEmpty = cells.isEmpty();
+        if (cells.put(Cursor.pack(x, y), value) != null) return;
+
+        if (wasEmpty) {
+            minX = maxX = x;
+            minY = maxY = y;
+            boundsStale = false;
+        } else {
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+    }
+
+    /**
+     * @return the removed value, or null if the cell wasn't occupied.
+     */
+    public T remove(int x, int y) {
+        final T removed = cells.remove(Cursor.pack(x, y));
+        if (removed != null && (x == minX || x == maxX || y == minY || y == maxY)) {
+            boundsStale = true;
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean exists(int x, int y) {
+        return cells.containsKey(Cursor.pack(x, y));
+    }
+
+    @Override
+    public int size() {
+        return cells.size();
+    }
+
+    @Override
+    public void clear() {
+        cells.clear();
+        boundsStale = false;
+    }
+
+    /**
+     * Bounding box of the occupied cells. Kept up to date as cells are added, a removal on the edge of the box costs a
+     * walk over the occupied cells the next time this is called.
+     */
+    @Override
+    public Rect bounds() {
+        if (cells.isEmpty()) return Rect.EMPTY;
+        if (boundsStale) recomputeBounds();
+        return new Rect(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    @Override
+    public Sequence<T> iterator() {
+        return new OccupiedSequence();
+    }
+
+
+
+    private void recomputeBounds() {
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        for (int slot = cells.nextSlot(0); slot >= 0; slot = cells.nextSlot(slot + 1)) {
+            final long key = cells.keyAt(slot);
+            final int x = Cursor.unpackX(key);
+            final int y = Cursor.unpackY(key);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        boundsStale = false;
+    }
+
+
+
+    /**
+     * Walks the occupied slots of the map directly. Not fail-fast, the grid mustn't be modified while this is in use.
+     */
+    private class OccupiedSequence implements Sequence<T> {
+
+        private int slot = cells.nextSlot(0);
+
+
+
+        @Override
+        public boolean hasNext() {
+            return slot >= 0;
+        }
+
+        @Override
+        public boolean hasNextLocation() {
+            return slot >= 0;
+        }
+
+        @Override
+        public T next() {
+            if (slot < 0) throw new NoSuchElementException();
+            final T value = cells.valueAt(slot);
+            slot = cells.nextSlot(slot + 1);
+            return value;
+        }
+
+        @Override
+        public V2 nextLocation() {
+            if (slot < 0) throw new NoSuchElementException();
+            final long key = cells.keyAt(slot);
+            slot = cells.nextSlot(slot + 1);
+            return new V2(Cursor.unpackX(key), Cursor.unpackY(key));
+        }
+
+        @Override
+        public boolean nextLocation(Cursor into) {
+            if (slot < 0) return false;
+            final long key = cells.keyAt(slot);
+            into.set(Cursor.unpackX(key), Cursor.unpackY(key));
+            slot = cells.nextSlot(slot + 1);
+            return true;
+        }
+
+        @Override
+        public Optional<T> peek() {
+            if (slot < 0) return Optional.empty();
+            return Optional.of(cells.valueAt(slot));
+        }
+
+        @Override
+        public Optional<V2> peekLocation() {
+            if (slot < 0) return Optional.empty();
+            final long key = cells.keyAt(slot);
+            return Optional.of(new V2(Cursor.unpackX(key), Cursor.unpackY(key)));
+        }
+
+        @Override
+        public boolean peekLocation(Cursor into) {
+            if (slot < 0) return false;
+            final long key = cells.keyAt(slot);
+            into.set(Cursor.unpackX(key), Cursor.unpackY(key));
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import org.example.Grid.CardanlPattern;
+import org.example.Grid.V2;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed list of offsets describing a cell's neighbourhood, see {@link Grid#forEachNeighbour}. Offsets are kept as
+ * primitives so walking a neighbourhood doesn't allocate, and array grids can turn them into flat index offsets once
+ * per width rather than once per cell. Immutable.
+ */
+public final class Stencil {
+
+    private static final Stencil MOORE = fromPatterns(CardanlPattern.values());
+    private static final Stencil VON_NEUMANN = fromPatterns(
+            CardanlPattern.NORTH, CardanlPattern.SOUTH, CardanlPattern.EAST, CardanlPattern.WEST
+    );
+
+    private final int[] dx;
+    private final int[] dy;
+    private final int radius;
+
+
+
+    private Stencil(int[] dx, int[] dy) {
+        this.dx = dx;
+        this.dy = dy;
+
+        int radius = 0;
+        for (int i = 0; i < dx.length; i++) {
+            radius = Math.max(radius, Math.max(Math.abs(dx[i]), Math.abs(dy[i])));
+        }
+        this.radius = radius;
+    }
+
+    /**
+     * The eight surrounding cells, in {@link CardanlPattern#values()} order.
+     */
+    public static Stencil moore() {
+        return MOORE;
+    }
+
+    /**
+     * North, south, east and west, in that order.
+     */
+    public static Stencil vonNeumann() {
+        return VON_NEUMANN;
+    }
+
+    /**
+     * Every cell within {@code radius} steps in both x and y, row-major, the centre excluded.
+     */
+    public static Stencil moore(int radius) {
+        checkRadius(radius);
+        final int side = (2 * radius) + 1;
+        final int[] dx = new int[(side * side) - 1];
+        final int[] dy = new int[dx.length];
+        int i = 0;
+        for (int y = -radius; y <= radius; y++) {
+            for (int x = -radius; x <= radius; x++) {
+                if (x == 0 && y == 0) continue;
+                dx[i] = x;
+                dy[i++] = y;
+            }
+        }
+        return new Stencil(dx, dy);
+    }
+
+    /**
+     * Every cell within {@code radius} steps by Manhattan distance, row-major, the centre excluded.
+     */
+    public static Stencil vonNeumann(int radius) {
+        checkRadius(radius);
+        final int count = (2 * radius * (radius + 1));
+        final int[] dx = new int[count];
+        final int[] dy = new int[count];
+        int i = 0;
+        for (int y = -radius; y <= radius; y++) {
+            final int reach = radius - Math.abs(y);
+            for (int x = -reach; x <= reach; x++) {
+                if (x == 0 && y == 0) continue;
+                dx[i] = x;
+                dy[i++] = y;
+            }
+        }
+        return new Stencil(dx, dy);
+    }
+
+    /**
+     * A custom neighbourhood, visited in the order given. Offsets may repeat or include (0, 0).
+     */
+    public static Stencil of(List<V2> offsets) {
+        final int[] dx = new int[offsets.size()];
+        final int[] dy = new int[offsets.size()];
+        for (int i = 0; i < dx.length; i++) {
+            dx[i] = offsets.get(i).x();
+            dy[i] = offsets.get(i).y();
+        }
+        return new Stencil(dx, dy);
+    }
+
+    public static Stencil of(V2... offsets) {
+        return of(Arrays.asList(offsets));
+    }
+
+
+
+    public int size() {
+        return dx.length;
+    }
+
+    public int dx(int i) {
+        return dx[i];
+    }
+
+    public int dy(int i) {
+        return dy[i];
+    }
+
+    /**
+     * Largest x or y distance of any offset. A cell at least this far from every edge has its whole neighbourhood
+     * inside a regular grid.
+     */
+    public int radius() {
+        return radius;
+    }
+
+    /**
+     * Offsets as steps through a row-major array {@code width} wide. Only meaningful for cells at least
+     * {@link #radius()} from the edges. Computed afresh on every call, so callers keep hold of the result, see
+     * {@link AbstractArrayGrid#indexOffsets(Stencil)}.
+     */
+    int[] indexOffsets(int width) {
+        final int[] offsets = new int[dx.length];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = (dy[i] * width) + dx[i];
+        }
+        return offsets;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("Stencil[");
+        for (int i = 0; i < dx.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append('(').append(dx[i]).append(", ").append(dy[i]).append(')');
+        }
+        return builder.append(']').toString();
+    }
+
+
+
+    private static Stencil fromPatterns(CardanlPattern... patterns) {
+        final int[] dx = new int[patterns.length];
+        final int[] dy = new int[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            dx[i] = patterns[i].xIncrement();
+            dy[i] = patterns[i].yIncrement();
+        }
+        return new Stencil(dx, dy);
+    }
+
+    private static void checkRadius(int radius) {
+        if (radius < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Stencil radius must be at least one. [Radius=%d]", radius
+            ));
+        }
+    }
+
+}
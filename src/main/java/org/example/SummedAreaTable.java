@@ -0,0 +1,476 @@
+package org.example;
+
+import org.example.Grid.Rect;
+import org.example.ObservableGrid.ChangeListener;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Prefix sums over a grid, so the total of any rectangle is four lookups however big the rectangle is. Entry (x, y) of
+ * the table holds the sum of every cell above and to the left of (x, y), with a row and column of zeros in front so
+ * rectangles touching the grid's edge need no special case. The table is built on a {@link ForkJoinPool} in two
+ * passes, summing along rows in bands and then down columns in strips.
+ * <p>
+ * Counting and occupancy are sums too, for example {@code ofLongs(grid, value -> (value != null) ? 1 : 0)}.
+ * <p>
+ * A table doesn't see changes to its grid by itself. Either report each change with {@code add}, which is eager and
+ * only suits a few changes, or {@link #invalidate(Rect)} what changed and the table is rebuilt from the lowest changed
+ * row at the next query. {@link #invalidateOnChange(ObservableGrid)} does the latter for an {@link ObservableGrid}.
+ * <p>
+ * Not thread safe, queries may rebuild the table.
+ */
+public abstract class SummedAreaTable {
+
+    /**
+     * Tasks smaller than this many cells aren't split any further.
+     */
+    private static final int MIN_TASK_CELLS = 1 << 14;
+
+    private final Grid<?> grid;
+    private final ForkJoinPool pool;
+
+    private Rect bounds;
+    /**
+     * Row length of the table, one more than the grid's width.
+     */
+    private int stride;
+    /**
+     * First row, relative to the bounds, whose sums are out of date. The bounds' height when the table is current.
+     */
+    private int dirtyFrom;
+    private boolean boundsStale;
+
+
+
+    SummedAreaTable(Grid<?> grid, ForkJoinPool pool) {
+        this.grid = grid;
+        this.pool = pool;
+        this.bounds = Rect.EMPTY;
+        this.boundsStale = true;
+    }
+
+    public static OfLong ofLongs(Grid<? extends Number> grid) {
+        return ofLongs(grid, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sums the cells of a numeric grid, missing and null cells counting as zero.
+     */
+    public static OfLong ofLongs(Grid<? extends Number> grid, ForkJoinPool pool) {
+        // Read the primitive grids without boxing.
+        if (grid instanceof IntGrid ints) return new OfLong(grid, ints::getInt, pool);
+        if (grid instanceof LongGrid longs) return new OfLong(grid, longs::getLong, pool);
+        return ofLongs(grid, value -> (value == null) ? 0 : value.longValue(), pool);
+    }
+
+    /**
+     * Sums {@code value} of each cell, missing cells counting as zero. {@code value} may be called from several
+     * threads at once.
+     */
+    public static <T> OfLong ofLongs(Grid<T> grid, ToLongFunction<? super T> value, ForkJoinPool pool) {
+        return new OfLong(grid, (x, y) -> grid.exists(x, y) ? value.applyAsLong(grid.get(x, y)) : 0, pool);
+    }
+
+    public static OfDouble ofDoubles(Grid<? extends Number> grid) {
+        return ofDoubles(grid, value -> (value == null) ? 0 : value.doubleValue(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sums {@code value} of each cell, missing cells counting as zero. {@code value} may be called from several
+     * threads at once.
+     */
+    public static <T> OfDouble ofDoubles(Grid<T> grid, ToDoubleFunction<? super T> value, ForkJoinPool pool) {
+        return new OfDouble(grid, (x, y) -> grid.exists(x, y) ? value.applyAsDouble(grid.get(x, y)) : 0, pool);
+    }
+
+
+
+    /**
+     * The grid's bounds when the table was last built. Rectangles are clipped to these.
+     */
+    public Rect bounds() {
+        refresh();
+        return bounds;
+    }
+
+    /**
+     * Marks everything out of date, including the grid's bounds.
+     */
+    public void invalidate() {
+        boundsStale = true;
+    }
+
+    /**
+     * Marks cells in {@code changed} out of date. Rectangles reaching outside the bounds the table was built with,
+     * which happens when a sparse grid grows, mark everything.
+     */
+    public void invalidate(Rect changed) {
+        if (changed.isEmpty()) return;
+        if (!contains(bounds, changed)) {
+            boundsStale = true;
+            return;
+        }
+        dirtyFrom = Math.min(dirtyFrom, changed.y() - bounds.y());
+    }
+
+    public void invalidate(int x, int y) {
+        invalidate(new Rect(x, y, 1, 1));
+    }
+
+    /**
+     * Invalidates the tiles {@code observable} reports as changed. The returned listener can be handed to
+     * {@link ObservableGrid#removeChangeListener(ChangeListener)} to stop.
+     */
+    public <T> ChangeListener<T> invalidateOnChange(ObservableGrid<T> observable) {
+        final ChangeListener<T> listener = (changed, change) -> {
+            for (Rect tiles : change.tiles()) {
+                // Tiles are whole, so may reach past the bounds without anything outside them having changed.
+                invalidate(intersection(tiles, changed.bounds()));
+            }
+        };
+        observable.addChangeListener(listener);
+        return listener;
+    }
+
+
+
+    /**
+     * Brings the table up to date if anything has been invalidated.
+     */
+    final void refresh() {
+        if (boundsStale) {
+            bounds = grid.bounds();
+            stride = bounds.isEmpty() ? 1 : Math.addExact(bounds.width(), 1);
+            final int rows = bounds.isEmpty() ? 1 : Math.addExact(bounds.height(), 1);
+            allocate(Math.multiplyExact(stride, rows));
+            boundsStale = false;
+            dirtyFrom = 0;
+        }
+
+        final int height = bounds.isEmpty() ? 0 : bounds.height();
+        if (dirtyFrom >= height) return;
+
+        final int from = dirtyFrom;
+        final int width = stride - 1;
+        pool.invoke(new Split(from, height, width, (fromRow, toRow) -> sumRows(fromRow, toRow)));
+        pool.invoke(new Split(0, width, height - from, (fromColumn, toColumn) -> {
+            sumColumns(from, fromColumn, toColumn);
+        }));
+        dirtyFrom = height;
+    }
+
+    /**
+     * Index into the table of the corner at grid (x, y), both clipped to the bounds. (right, bottom) is an exclusive
+     * corner, so the table has one entry more each way than the grid has cells.
+     */
+    final int corner(long x, long y) {
+        final long column = Math.max(0, Math.min(stride - 1, x - bounds.x()));
+        final long row = Math.max(0, Math.min(bounds.isEmpty() ? 0 : bounds.height(), y - bounds.y()));
+        return (int) (row * stride + column);
+    }
+
+    /**
+     * Index into the table of the first entry the cell at grid (x, y) counts towards, the corner just past it, or -1
+     * if the cell's rows are going to be rebuilt from the grid anyway and will pick the change up from there.
+     */
+    final int addStart(int x, int y) {
+        if (boundsStale) return -1;
+        if (!bounds.contains(x, y)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Cell is outside the table. [X=%d, Y=%d, Bounds=%s]", x, y, bounds
+            ));
+        }
+        if (y - bounds.y() >= dirtyFrom) return -1;
+        return (y - bounds.y() + 1) * stride + (x - bounds.x() + 1);
+    }
+
+    /**
+     * End of the table entries that are up to date, the rows {@code add} should stop at.
+     */
+    final int addEnd() {
+        return (dirtyFrom + 1) * stride;
+    }
+
+    final int stride() {
+        return stride;
+    }
+
+    final int gridX() {
+        return bounds.x();
+    }
+
+    final int gridY() {
+        return bounds.y();
+    }
+
+    abstract void allocate(int length);
+
+    /**
+     * Fills table rows for grid rows [fromRow, toRow), relative to the bounds, with sums along the row.
+     */
+    abstract void sumRows(int fromRow, int toRow);
+
+    /**
+     * Adds each table row from grid row {@code fromRow} on to the one above, over columns [fromColumn, toColumn) of
+     * the grid.
+     */
+    abstract void sumColumns(int fromRow, int fromColumn, int toColumn);
+
+
+
+    private static boolean contains(Rect outer, Rect inner) {
+        return !outer.isEmpty()
+                && inner.x() >= outer.x() && inner.y() >= outer.y()
+                && (long) inner.x() + inner.width() <= (long) outer.x() + outer.width()
+                && (long) inner.y() + inner.height() <= (long) outer.y() + outer.height();
+    }
+
+    private static Rect intersection(Rect a, Rect b) {
+        final long left = Math.max(a.x(), b.x());
+        final long top = Math.max(a.y(), b.y());
+        final long right = Math.min((long) a.x() + a.width(), (long) b.x() + b.width());
+        final long bottom = Math.min((long) a.y() + a.height(), (long) b.y() + b.height());
+        if (right <= left || bottom <= top) return Rect.EMPTY;
+        return new Rect((int) left, (int) top, (int) (right - left), (int) (bottom - top));
+    }
+
+
+
+    /**
+     * {@code long} sums, exact until they overflow.
+     */
+    public static final class OfLong extends SummedAreaTable {
+
+        private final LongCells cells;
+        private long[] table;
+
+
+
+        private OfLong(Grid<?> grid, LongCells cells, ForkJoinPool pool) {
+            super(grid, pool);
+            this.cells = cells;
+            refresh();
+        }
+
+
+
+        /**
+         * Sum of the cells in the rectangle, clipped to the bounds.
+         */
+        public long sum(int x, int y, int width, int height) {
+            refresh();
+            if (width <= 0 || height <= 0) return 0;
+            final long right = (long) x + width;
+            final long bottom = (long) y + height;
+            return table[corner(right, bottom)] - table[corner(x, bottom)]
+                    - table[corner(right, y)] + table[corner(x, y)];
+        }
+
+        public long sum(Rect rect) {
+            return sum(rect.x(), rect.y(), rect.width(), rect.height());
+        }
+
+        public long total() {
+            refresh();
+            return table[table.length - 1];
+        }
+
+        /**
+         * Adds {@code delta} to the cell at (x, y), for when the grid has been changed by that much. Costs a write for
+         * every cell below and to the right of (x, y), so for many changes {@link #invalidate(Rect)} is cheaper. The
+         * grid is expected to hold the new value already, as rows waiting to be rebuilt are left to the rebuild.
+         */
+        public void add(int x, int y, long delta) {
+            final int start = addStart(x, y);
+            if (start < 0) return;
+            final int stride = stride();
+            final int column = start % stride;
+            for (int rowStart = start - column; rowStart < addEnd(); rowStart += stride) {
+                for (int index = rowStart + column; index < rowStart + stride; index++) {
+                    table[index] += delta;
+                }
+            }
+        }
+
+
+
+        @Override
+        void allocate(int length) {
+            table = new long[length];
+        }
+
+        @Override
+        void sumRows(int fromRow, int toRow) {
+            final int stride = stride();
+            for (int row = fromRow; row < toRow; row++) {
+                final int y = gridY() + row;
+                final int rowStart = (row + 1) * stride;
+                long sum = 0;
+                for (int column = 0; column < stride - 1; column++) {
+                    sum += cells.get(gridX() + column, y);
+                    table[rowStart + column + 1] = sum;
+                }
+            }
+        }
+
+        @Override
+        void sumColumns(int fromRow, int fromColumn, int toColumn) {
+            final int stride = stride();
+            final int end = table.length;
+            for (int rowStart = (fromRow + 1) * stride; rowStart < end; rowStart += stride) {
+                for (int index = rowStart + fromColumn + 1; index <= rowStart + toColumn; index++) {
+                    table[index] += table[index - stride];
+                }
+            }
+        }
+
+    }
+
+    /**
+     * {@code double} sums. Each lookup is the difference of sums over everything above and left of it, so on big
+     * grids of large values small rectangles lose precision.
+     */
+    public static final class OfDouble extends SummedAreaTable {
+
+        private final DoubleCells cells;
+        private double[] table;
+
+
+
+        private OfDouble(Grid<?> grid, DoubleCells cells, ForkJoinPool pool) {
+            super(grid, pool);
+            this.cells = cells;
+            refresh();
+        }
+
+
+
+        /**
+         * Sum of the cells in the rectangle, clipped to the bounds.
+         */
+        public double sum(int x, int y, int width, int height) {
+            refresh();
+            if (width <= 0 || height <= 0) return 0;
+            final long right = (long) x + width;
+            final long bottom = (long) y + height;
+            return table[corner(right, bottom)] - table[corner(x, bottom)]
+                    - table[corner(right, y)] + table[corner(x, y)];
+        }
+
+        public double sum(Rect rect) {
+            return sum(rect.x(), rect.y(), rect.width(), rect.height());
+        }
+
+        public double total() {
+            refresh();
+            return table[table.length - 1];
+        }
+
+        /**
+         * See {@link OfLong#add(int, int, long)}.
+         */
+        public void add(int x, int y, double delta) {
+            final int start = addStart(x, y);
+            if (start < 0) return;
+            final int stride = stride();
+            final int column = start % stride;
+            for (int rowStart = start - column; rowStart < addEnd(); rowStart += stride) {
+                for (int index = rowStart + column; index < rowStart + stride; index++) {
+                    table[index] += delta;
+                }
+            }
+        }
+
+
+
+        @Override
+        void allocate(int length) {
+            table = new double[length];
+        }
+
+        @Override
+        void sumRows(int fromRow, int toRow) {
+            final int stride = stride();
+            for (int row = fromRow; row < toRow; row++) {
+                final int y = gridY() + row;
+                final int rowStart = (row + 1) * stride;
+                double sum = 0;
+                for (int column = 0; column < stride - 1; column++) {
+                    sum += cells.get(gridX() + column, y);
+                    table[rowStart + column + 1] = sum;
+                }
+            }
+        }
+
+        @Override
+        void sumColumns(int fromRow, int fromColumn, int toColumn) {
+            final int stride = stride();
+            final int end = table.length;
+            for (int rowStart = (fromRow + 1) * stride; rowStart < end; rowStart += stride) {
+                for (int index = rowStart + fromColumn + 1; index <= rowStart + toColumn; index++) {
+                    table[index] += table[index - stride];
+                }
+            }
+        }
+
+    }
+
+
+
+    @FunctionalInterface
+    private interface LongCells {
+        long get(int x, int y);
+    }
+
+    @FunctionalInterface
+    private interface DoubleCells {
+        double get(int x, int y);
+    }
+
+    @FunctionalInterface
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs an action over [from, to), halving the range until each part covers few enough cells.
+     */
+    private static final class Split extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int cellsPerStep;
+        private final RangeAction action;
+
+
+
+        private Split(int from, int to, int cellsPerStep, RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.cellsPerStep = cellsPerStep;
+            this.action = action;
+        }
+
+
+
+        @Override
+        protected void compute() {
+            final int steps = to - from;
+            if (steps < 2 || (long) steps * cellsPerStep <= MIN_TASK_CELLS) {
+                if (steps > 0) action.run(from, to);
+                return;
+            }
+
+            final int middle = from + (steps / 2);
+            invokeAll(
+                    new Split(from, middle, cellsPerStep, action),
+                    new Split(middle, to, cellsPerStep, action)
+            );
+        }
+
+    }
+
+}
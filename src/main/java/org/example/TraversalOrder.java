@@ -0,0 +1,490 @@
+package org.example;
+
+import org.example.Grid.Cursor;
+import org.example.Grid.Pattern;
+import org.example.Grid.Rect;
+import org.example.Grid.V2;
+
+import java.util.Optional;
+
+/**
+ * An order to visit every cell of a rectangle in. Besides plain row-major there are orders that keep cells visited
+ * close in time close in space too, which suits passes that read each cell's neighbours or work on regions of large
+ * grids: they stay within the cache lines and pages already loaded instead of sweeping a whole row between visits.
+ * <ul>
+ *     <li>{@link #morton()}, Z-order. Cheap to compute, with the odd jump between quadrants.</li>
+ *     <li>{@link #hilbert()}, which never jumps within a square of the curve, at a higher cost per step.</li>
+ *     <li>{@link #tiled(int, int)}, row-major tiles of row-major cells, for when the tile size that suits the work
+ *     is known.</li>
+ * </ul>
+ * The curves are laid over the smallest power of two square covering the rectangle, and skip the parts of it that
+ * fall outside a whole aligned block at a time. Each order numbers the cells of the rectangle, which lets
+ * {@link OrderedSpliterator} split the numbering into contiguous, and so local, runs.
+ */
+public abstract class TraversalOrder {
+
+    private static final TraversalOrder ROW_MAJOR = new TraversalOrder() {
+        @Override
+        Layout layout(int width, int height) {
+            return new RowMajorLayout(width, height);
+        }
+    };
+
+    private static final TraversalOrder MORTON = new TraversalOrder() {
+        @Override
+        Layout layout(int width, int height) {
+            return new MortonLayout(width, height);
+        }
+    };
+
+    private static final TraversalOrder HILBERT = new TraversalOrder() {
+        @Override
+        Layout layout(int width, int height) {
+            return new HilbertLayout(width, height);
+        }
+    };
+
+
+
+    TraversalOrder() { }
+
+    public static TraversalOrder rowMajor() {
+        return ROW_MAJOR;
+    }
+
+    public static TraversalOrder morton() {
+        return MORTON;
+    }
+
+    public static TraversalOrder hilbert() {
+        return HILBERT;
+    }
+
+    /**
+     * Tiles of {@code tileWidth} by {@code tileHeight} taken row by row, the cells within each tile row by row too.
+     * Tiles on the right and bottom edges are cut short by the rectangle.
+     */
+    public static TraversalOrder tiled(int tileWidth, int tileHeight) {
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Tiles must have a positive size. [TileWidth=%d, TileHeight=%d]", tileWidth, tileHeight
+            ));
+        }
+        return new TraversalOrder() {
+            @Override
+            Layout layout(int width, int height) {
+                return new TiledLayout(width, height, tileWidth, tileHeight);
+            }
+        };
+    }
+
+
+
+    /**
+     * The first cell of {@code bounds} in this order, empty if there are no cells.
+     */
+    public Optional<V2> first(Rect bounds) {
+        if (bounds.isEmpty()) return Optional.empty();
+        final Layout layout = layout(bounds.width(), bounds.height());
+        final long point = layout.point(layout.nextInside(0, layout.span()));
+        return Optional.of(new V2(bounds.x() + Cursor.unpackX(point), bounds.y() + Cursor.unpackY(point)));
+    }
+
+    /**
+     * This order as a {@link Pattern} over {@code bounds}, stepping from any cell of the rectangle to the one after it.
+     * With {@link #first(Rect)} as the start, {@link Grid#iterator(V2, Pattern)} walks the whole rectangle. Stepping
+     * doesn't allocate, but costs an encode and a decode of the cell's position in the order.
+     */
+    public Pattern pattern(Rect bounds) {
+        final Layout layout = layout(Math.max(0, bounds.width()), Math.max(0, bounds.height()));
+        return new Pattern() {
+            @Override
+            public Optional<V2> next(V2 current) {
+                final Cursor cursor = new Cursor(current);
+                return step(cursor) ? Optional.of(cursor.toV2()) : Optional.empty();
+            }
+
+            @Override
+            public boolean step(Cursor cursor) {
+                if (!bounds.contains(cursor.x(), cursor.y())) return false;
+
+                final long index = layout.encode(cursor.x() - bounds.x(), cursor.y() - bounds.y());
+                final long next = layout.nextInside(index + 1, layout.span());
+                if (next >= layout.span()) return false;
+
+                final long point = layout.point(next);
+                cursor.set(bounds.x() + Cursor.unpackX(point), bounds.y() + Cursor.unpackY(point));
+                return true;
+            }
+        };
+    }
+
+
+
+    /**
+     * The order over a {@code width} by {@code height} rectangle anchored at (0, 0).
+     */
+    abstract Layout layout(int width, int height);
+
+
+
+    /**
+     * Numbers the cells of a {@code width} by {@code height} rectangle anchored at (0, 0). Numbers run from 0 to
+     * {@link #span()}, some of them, for the curves, falling outside the rectangle. Layouts are immutable and shared
+     * between the parts of a split spliterator.
+     */
+    abstract static class Layout {
+
+        final int width;
+        final int height;
+
+
+
+        Layout(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+
+
+        abstract long span();
+
+        /**
+         * The number of the cell at (x, y), which must be inside the rectangle.
+         */
+        abstract long encode(int x, int y);
+
+        /**
+         * The cell numbered {@code index}, packed by {@link Cursor#pack(int, int)}. May be outside the rectangle.
+         */
+        abstract long point(long index);
+
+        /**
+         * The first number from {@code index} on, but before {@code end}, that is inside the rectangle, or
+         * {@code end} if there isn't one.
+         */
+        long nextInside(long index, long end) {
+            return Math.min(index, end);
+        }
+
+        /**
+         * How many numbers in [from, to) are inside the rectangle.
+         */
+        long count(long from, long to) {
+            return Math.max(0, to - from);
+        }
+
+        /**
+         * A number between {@code from} and {@code to}, exclusive, to split the range at, or -1 if there isn't one.
+         */
+        long split(long from, long to) {
+            final long middle = from + ((to - from) / 2);
+            return (middle > from) ? middle : -1;
+        }
+
+    }
+
+    private static final class RowMajorLayout extends Layout {
+
+        private RowMajorLayout(int width, int height) {
+            super(width, height);
+        }
+
+
+
+        @Override
+        long span() {
+            return (long) width * height;
+        }
+
+        @Override
+        long encode(int x, int y) {
+            return ((long) y * width) + x;
+        }
+
+        @Override
+        long point(long index) {
+            return Cursor.pack((int) (index % width), (int) (index / width));
+        }
+
+        /**
+         * On a row boundary where there is one, so each part has whole rows.
+         */
+        @Override
+        long split(long from, long to) {
+            final long middle = from + ((to - from) / 2);
+            final long rowStart = middle - (middle % width);
+            if (rowStart > from) return rowStart;
+            return (middle > from) ? middle : -1;
+        }
+
+    }
+
+    /**
+     * Tile by tile, without padding, so every number is a cell. Numbers run through whole rows of tiles, each
+     * {@link #tileHeight} cells high but for the last, then tile by tile along the row.
+     */
+    private static final class TiledLayout extends Layout {
+
+        private final int tileWidth;
+        private final int tileHeight;
+
+
+
+        private TiledLayout(int width, int height, int tileWidth, int tileHeight) {
+            super(width, height);
+            this.tileWidth = tileWidth;
+            this.tileHeight = tileHeight;
+        }
+
+
+
+        @Override
+        long span() {
+            return (long) width * height;
+        }
+
+        @Override
+        long encode(int x, int y) {
+            final int tileTop = y - (y % tileHeight);
+            final int rowHeight = Math.min(tileHeight, height - tileTop);
+            final int tileLeft = x - (x % tileWidth);
+            final int tileWide = Math.min(tileWidth, width - tileLeft);
+            return ((long) tileTop * width) + ((long) tileLeft * rowHeight)
+                    + ((long) (y - tileTop) * tileWide) + (x - tileLeft);
+        }
+
+        @Override
+        long point(long index) {
+            final long tileRowCells = (long) tileHeight * width;
+            final int tileTop = (int) (index / tileRowCells) * tileHeight;
+            final int rowHeight = Math.min(tileHeight, height - tileTop);
+            final long inRow = index - ((long) tileTop * width);
+
+            final int tileLeft = (int) (inRow / ((long) tileWidth * rowHeight)) * tileWidth;
+            final int tileWide = Math.min(tileWidth, width - tileLeft);
+            final int inTile = (int) (inRow - ((long) tileLeft * rowHeight));
+            return Cursor.pack(tileLeft + (inTile % tileWide), tileTop + (inTile / tileWide));
+        }
+
+        /**
+         * On a tile boundary where there is one.
+         */
+        @Override
+        long split(long from, long to) {
+            final long middle = from + ((to - from) / 2);
+            final long point = point(middle);
+            final int x = Cursor.unpackX(point);
+            final int y = Cursor.unpackY(point);
+            final long tileStart = encode(x - (x % tileWidth), y - (y % tileHeight));
+            if (tileStart > from) return tileStart;
+            return (middle > from) ? middle : -1;
+        }
+
+    }
+
+    /**
+     * Curves numbering a {@code 2^level} square. Every aligned block of {@code 4^j} numbers covers an aligned
+     * {@code 2^j} square, which is what lets runs outside the rectangle be skipped, and counted, a block at a time.
+     */
+    private abstract static class CurveLayout extends Layout {
+
+        final int level;
+
+
+
+        private CurveLayout(int width, int height) {
+            super(width, height);
+            final int side = Math.max(1, Math.max(width, height));
+            this.level = 32 - Integer.numberOfLeadingZeros(side - 1);
+        }
+
+
+
+        @Override
+        long span() {
+            return 1L << (2 * level);
+        }
+
+        @Override
+        long nextInside(long index, long end) {
+            while (index < end) {
+                final long point = point(index);
+                final int x = Cursor.unpackX(point);
+                final int y = Cursor.unpackY(point);
+                if (x < width && y < height) return index;
+
+                // Grow the block while it still starts here, fits before the end and misses the rectangle.
+                int blockLevel = 0;
+                while (blockLevel < level) {
+                    final long blockSize = 1L << (2 * (blockLevel + 1));
+                    if ((index & (blockSize - 1)) != 0 || index + blockSize > end) break;
+                    final int mask = ~((1 << (blockLevel + 1)) - 1);
+                    if ((x & mask) < width && (y & mask) < height) break;
+                    blockLevel++;
+                }
+                index += 1L << (2 * blockLevel);
+            }
+            return end;
+        }
+
+        @Override
+        long count(long from, long to) {
+            long count = 0;
+            long index = from;
+            while (index < to) {
+                final int blockLevel = largestBlock(index, to);
+                final long side = 1L << blockLevel;
+                final long point = point(index);
+                final long left = Cursor.unpackX(point) & -side;
+                final long top = Cursor.unpackY(point) & -side;
+                count += clamp(width - left, side) * clamp(height - top, side);
+                index += 1L << (2 * blockLevel);
+            }
+            return count;
+        }
+
+        /**
+         * At the start of the largest block in the range, so the prefix is as square as it can be.
+         */
+        @Override
+        long split(long from, long to) {
+            final long middle = from + ((to - from) / 2);
+            if (middle <= from) return -1;
+            final int shift = 2 * (63 - Long.numberOfLeadingZeros(to - from) >>> 1);
+            final long aligned = middle & -(1L << shift);
+            return (aligned > from) ? aligned : middle;
+        }
+
+
+
+        /**
+         * Level of the largest aligned block starting at {@code index} that ends by {@code to}.
+         */
+        private int largestBlock(long index, long to) {
+            final int alignment = (index == 0) ? level : Long.numberOfTrailingZeros(index) >>> 1;
+            final int fit = (63 - Long.numberOfLeadingZeros(to - index)) >>> 1;
+            return Math.min(level, Math.min(alignment, fit));
+        }
+
+        private static long clamp(long length, long side) {
+            return Math.max(0, Math.min(side, length));
+        }
+
+    }
+
+    /**
+     * Z-order, x in the even bits of the number and y in the odd.
+     */
+    private static final class MortonLayout extends CurveLayout {
+
+        private MortonLayout(int width, int height) {
+            super(width, height);
+        }
+
+
+
+        @Override
+        long encode(int x, int y) {
+            return spread(x) | (spread(y) << 1);
+        }
+
+        @Override
+        long point(long index) {
+            return Cursor.pack(compact(index), compact(index >>> 1));
+        }
+
+
+
+        /**
+         * Moves bit i of {@code value} to bit 2i.
+         */
+        private static long spread(int value) {
+            long bits = value & 0xFFFFFFFFL;
+            bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+            bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+            bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+            bits = (bits | (bits << 2)) & 0x3333333333333333L;
+            bits = (bits | (bits << 1)) & 0x5555555555555555L;
+            return bits;
+        }
+
+        /**
+         * The inverse of {@link #spread(int)}, reading the even bits.
+         */
+        private static int compact(long value) {
+            long bits = value & 0x5555555555555555L;
+            bits = (bits | (bits >>> 1)) & 0x3333333333333333L;
+            bits = (bits | (bits >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+            bits = (bits | (bits >>> 4)) & 0x00FF00FF00FF00FFL;
+            bits = (bits | (bits >>> 8)) & 0x0000FFFF0000FFFFL;
+            bits = (bits | (bits >>> 16)) & 0x00000000FFFFFFFFL;
+            return (int) bits;
+        }
+
+    }
+
+    /**
+     * The Hilbert curve, starting at (0, 0) and ending at the bottom left, (0, 2^level - 1).
+     */
+    private static final class HilbertLayout extends CurveLayout {
+
+        private HilbertLayout(int width, int height) {
+            super(width, height);
+        }
+
+
+
+        @Override
+        long encode(int x, int y) {
+            long index = 0;
+            int currentX = x;
+            int currentY = y;
+            for (int bit = level - 1; bit >= 0; bit--) {
+                final int side = 1 << bit;
+                final int right = ((currentX & side) != 0) ? 1 : 0;
+                final int down = ((currentY & side) != 0) ? 1 : 0;
+                index += (long) side * side * ((3 * right) ^ down);
+
+                // Rotate the quadrant back into the base orientation, only the bits below side matter from here on.
+                if (down == 0) {
+                    if (right == 1) {
+                        currentX = side - 1 - (currentX & (side - 1));
+                        currentY = side - 1 - (currentY & (side - 1));
+                    }
+                    final int swap = currentX;
+                    currentX = currentY;
+                    currentY = swap;
+                }
+            }
+            return index;
+        }
+
+        @Override
+        long point(long index) {
+            int x = 0;
+            int y = 0;
+            long remaining = index;
+            for (int bit = 0; bit < level; bit++) {
+                final int side = 1 << bit;
+                final int right = (int) (1 & (remaining >>> 1));
+                final int down = (int) (1 & (remaining ^ right));
+                if (down == 0) {
+                    if (right == 1) {
+                        x = side - 1 - x;
+                        y = side - 1 - y;
+                    }
+                    final int swap = x;
+                    x = y;
+                    y = swap;
+                }
+                x += side * right;
+                y += side * down;
+                remaining >>>= 2;
+            }
+            return Cursor.pack(x, y);
+        }
+
+    }
+
+}
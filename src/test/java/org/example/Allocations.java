@@ -0,0 +1,30 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures heap allocation for the tests that check a hot path doesn't allocate per cell.
+ */
+final class Allocations {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+
+
+    private Allocations() { }
+
+
+
+    /**
+     * Bytes the current thread allocated while running {@code action}. Warm the code up first, so the measured run
+     * isn't charged for class loading or compilation.
+     */
+    static long allocatedBy(Runnable action) {
+        final long threadId = Thread.currentThread().threadId();
+        final long before = THREADS.getThreadAllocatedBytes(threadId);
+        action.run();
+        return THREADS.getThreadAllocatedBytes(threadId) - before;
+    }
+
+}
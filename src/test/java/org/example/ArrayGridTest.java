@@ -0,0 +1,120 @@
+package org.example;
+
+import org.example.AbstractArrayGrid.Region;
+import org.example.Grid.Rect;
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArrayGridTest {
+
+    private static final List<List<Integer>> ROWS = List.of(
+            List.of(10, 20, 30),
+            List.of(40, 50, 60),
+            List.of(70, 80, 90)
+    );
+
+    @Test
+    public void matchesListGrid() {
+        final ListGrid<Integer> listGrid = ListGrid.immutable(ROWS);
+        final IntGrid intGrid = IntGrid.copyOf(ROWS);
+        final ArrayGrid<Integer> arrayGrid = ArrayGrid.copyOf(ROWS);
+
+        assertEquals(listGrid.size(), intGrid.size());
+        assertEquals(toList(listGrid.locatableIterable()), toList(intGrid.locatableIterable()));
+        assertEquals(toList(listGrid.locatableIterable()), toList(arrayGrid.locatableIterable()));
+
+        final V2 origin = new V2(0, 0);
+        assertEquals(
+                listGrid.stream(origin, Grid.SOUTH_EAST).toList(),
+                intGrid.stream(origin, Grid.SOUTH_EAST).toList()
+        );
+    }
+
+    @Test
+    public void primitiveAccess() {
+        final LongGrid longGrid = LongGrid.of(4, 2);
+        longGrid.setLong(3, 1, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, longGrid.getLong(3, 1));
+        assertEquals(Long.MAX_VALUE, longGrid.get(new V2(3, 1)));
+
+        final ByteGrid byteGrid = ByteGrid.copyOf(List.of(List.of(1, 2), List.of(3)));
+        assertEquals(2, byteGrid.width());
+        assertEquals(0, byteGrid.getByte(1, 1));
+        byteGrid.set(1, 1, (byte) 7);
+        assertEquals(7, byteGrid.getByte(1, 1));
+    }
+
+    @Test
+    public void bounds() {
+        final IntGrid grid = IntGrid.of(3, 2);
+
+        assertTrue(grid.exists(2, 1));
+        assertFalse(grid.exists(3, 0));
+        assertFalse(grid.exists(0, -1));
+        // The flat index of (3, 0) is in the array, it still mustn't be readable.
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.getInt(3, 0));
+        assertThrows(IllegalArgumentException.class, () -> IntGrid.noCopy(3, 3, new int[8]));
+        assertTrue(IntGrid.of(0, 5).iterator().peek().isEmpty());
+    }
+
+    @Test
+    public void regionsShareStorage() {
+        final IntGrid grid = IntGrid.of(6, 4);
+        for (int i = 0; i < grid.size(); i++) grid.setInt(i % 6, i / 6, i);
+
+        final Region<Integer, int[]> region = grid.region(1, 1, 3, 2);
+        assertEquals(6, region.size());
+        assertEquals(7, region.get(0, 0));
+        assertEquals(List.of(7, 8, 9, 13, 14, 15), toList(region.iterable()));
+
+        final int[] copy = new int[6];
+        region.copyTo(copy, 0);
+        assertEquals(List.of(7, 8, 9, 13, 14, 15), Arrays.stream(copy).boxed().toList());
+
+        region.fill(-1);
+        assertEquals(-1, grid.getInt(3, 2));
+        assertEquals(6, grid.getInt(0, 1));
+
+        // Overlapping move down one row, which must not smear the first row into the second.
+        grid.region(0, 0, 6, 2).copyTo(grid.region(0, 1, 6, 2));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), toList(grid.row(1).iterable()));
+        assertEquals(List.of(6, -1, -1, -1, 10, 11), toList(grid.row(2).iterable()));
+
+        assertTrue(grid.row(3).isContiguous());
+        assertEquals(List.of(0, 0, 6, 18), toList(grid.column(0).iterable()));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.region(4, 0, 3, 1));
+    }
+
+    @Test
+    public void jaggedRegion() {
+        final ListGrid<Integer> grid = ListGrid.immutable(List.of(
+                List.of(1, 2, 3),
+                List.of(4),
+                List.of(5, 6)
+        ));
+
+        assertEquals(new Rect(0, 0, 3, 3), grid.bounds());
+        final Grid<Integer> region = grid.region(1, 0, 2, 3);
+        assertEquals(List.of(2, 3, 6), toList(region.iterable()));
+        assertFalse(region.exists(0, 1));
+        assertEquals(List.of(2, 6), toList(grid.column(1).iterable()));
+    }
+
+
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        final ArrayList<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+
+}
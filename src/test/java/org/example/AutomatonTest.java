@@ -0,0 +1,128 @@
+package org.example;
+
+import org.example.Automaton.EdgeMode;
+import org.example.Automaton.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AutomatonTest {
+
+    private static final Rule LIFE = Rule.lifeLike("B3/S23");
+
+
+
+    @Test
+    public void blinkerOscillates() {
+        final IntGrid board = IntGrid.of(5, 5);
+        board.setInt(1, 2, 1);
+        board.setInt(2, 2, 1);
+        board.setInt(3, 2, 1);
+
+        final Automaton automaton = new Automaton(board, LIFE, EdgeMode.DEAD);
+        automaton.step();
+        assertEquals(1, automaton.get(2, 1));
+        assertEquals(1, automaton.get(2, 3));
+        assertEquals(0, automaton.get(1, 2));
+
+        automaton.step();
+        assertEquals(2, automaton.generation());
+        assertArrayEquals(cells(board), cells(automaton.current()));
+    }
+
+    @Test
+    public void gliderWrapsRoundTheBoard() {
+        final IntGrid board = IntGrid.of(8, 8);
+        board.setInt(1, 0, 1);
+        board.setInt(2, 1, 1);
+        board.setInt(0, 2, 1);
+        board.setInt(1, 2, 1);
+        board.setInt(2, 2, 1);
+
+        // A glider moves one cell diagonally every four generations.
+        final Automaton automaton = new Automaton(board, LIFE, EdgeMode.WRAP);
+        automaton.step(4 * 8);
+        assertArrayEquals(cells(board), cells(automaton.current()));
+
+        final Automaton dead = new Automaton(board, LIFE, EdgeMode.DEAD);
+        dead.step(4 * 8);
+        assertEquals(4, sum(dead.current()), "glider should end as a block in the corner");
+    }
+
+    @Test
+    public void clampReadsTheEdgeAsItsNeighbour() {
+        final IntGrid board = IntGrid.of(3, 3);
+        board.setInt(0, 0, 1);
+        final Rule countNeighbours = (self, neighbours) -> {
+            int total = 0;
+            for (int neighbour : neighbours) total += neighbour;
+            return total;
+        };
+
+        final Automaton clamp = new Automaton(board, countNeighbours, EdgeMode.CLAMP);
+        clamp.step();
+        // North, west and north west are off the board and clamp back onto the corner itself.
+        assertEquals(3, clamp.get(0, 0));
+
+        final Automaton dead = new Automaton(board, countNeighbours, EdgeMode.DEAD);
+        dead.step();
+        assertEquals(0, dead.get(0, 0));
+        assertEquals(1, dead.get(1, 1));
+    }
+
+    @Test
+    public void rejectsGridsWithNegativeCoordinates() {
+        final SparseGrid<Integer> board = new SparseGrid<>();
+        board.set(-3, 2, 1);
+        board.set(4, 4, 1);
+        assertThrows(IllegalArgumentException.class, () -> new Automaton(board, LIFE, EdgeMode.DEAD));
+    }
+
+    @Test
+    public void parallelMatchesSingleThreaded() {
+        final Random random = new Random(7);
+        final IntGrid board = IntGrid.of(300, 400);
+        for (int y = 0; y < board.height(); y++) {
+            for (int x = 0; x < board.width(); x++) {
+                board.setInt(x, y, random.nextInt(3) == 0 ? 1 : 0);
+            }
+        }
+
+        final ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            for (EdgeMode edgeMode : EdgeMode.values()) {
+                final Automaton parallel = new Automaton(board, LIFE, edgeMode);
+                final Automaton sequential = new Automaton(board, LIFE, edgeMode, single);
+                parallel.step(20);
+                sequential.step(20);
+                assertArrayEquals(cells(sequential.current()), cells(parallel.current()), edgeMode.name());
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+
+
+    private static int[] cells(IntGrid grid) {
+        final int[] cells = new int[grid.width() * grid.height()];
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                cells[y * grid.width() + x] = grid.getInt(x, y);
+            }
+        }
+        return cells;
+    }
+
+    private static int sum(IntGrid grid) {
+        int sum = 0;
+        for (int value : cells(grid)) sum += value;
+        return sum;
+    }
+
+}
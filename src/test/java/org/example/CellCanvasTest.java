@@ -0,0 +1,55 @@
+package org.example;
+
+import org.example.CellCanvas.CellRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CellCanvasTest {
+
+    @Test
+    public void paintsOnlyCellsInsideTheClip() {
+        final IntGrid grid = IntGrid.of(500, 300);
+        grid.setInt(2, 1, 1);
+
+        final int[] visited = new int[1];
+        final CellRenderer<Integer> renderer = new CellRenderer<>() {
+            @Override
+            public char glyph(Integer value) {
+                visited[0]++;
+                return (value == 1) ? '#' : CellRenderer.NO_GLYPH;
+            }
+
+            @Override
+            public Color background(Integer value) {
+                return (value == 1) ? Color.RED : Color.BLUE;
+            }
+        };
+
+        final CellCanvas<Integer> canvas = new CellCanvas<>(grid, renderer);
+        canvas.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        final Dimension cellSize = canvas.getCellSize();
+        assertEquals(new Dimension(500 * cellSize.width, 300 * cellSize.height), canvas.getPreferredSize());
+        canvas.setSize(canvas.getPreferredSize());
+
+        final BufferedImage image = new BufferedImage(
+                8 * cellSize.width, 8 * cellSize.height, BufferedImage.TYPE_INT_ARGB
+        );
+        final Graphics2D g = image.createGraphics();
+        g.setClip(0, 0, 4 * cellSize.width, 3 * cellSize.height);
+        canvas.paint(g);
+        g.dispose();
+
+        assertEquals(4 * 3, visited[0]);
+        assertEquals(Color.RED.getRGB(), image.getRGB(2 * cellSize.width, cellSize.height));
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(cellSize.width, cellSize.height));
+        assertEquals(0, image.getRGB(5 * cellSize.width, 5 * cellSize.height));
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import org.example.CellLayout.Constraints;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JPanel;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CellLayoutTest {
+
+    @Test
+    public void extentsFollowAddsAndRemoves() {
+        final CellLayout layout = new CellLayout(10, 20);
+        final JPanel parent = new JPanel(layout);
+
+        final JPanel small = new JPanel();
+        final JPanel wide = new JPanel();
+        final JPanel tall = new JPanel();
+        parent.add(small, new Constraints(0, 0, 2, 2));
+        parent.add(wide, new Constraints(5, 0, 10, 1));
+        parent.add(tall, new Constraints(0, 3, 1, 7));
+        assertEquals(new Dimension(150, 200), layout.preferredLayoutSize(parent));
+
+        parent.remove(wide);
+        assertEquals(new Dimension(20, 200), layout.preferredLayoutSize(parent));
+
+        parent.remove(tall);
+        parent.remove(small);
+        assertEquals(new Dimension(0, 0), layout.preferredLayoutSize(parent));
+    }
+
+    @Test
+    public void constraintsAreCopied() {
+        final CellLayout layout = new CellLayout(10, 10);
+        final JPanel parent = new JPanel(layout);
+
+        final Constraints constraints = new Constraints(1, 1, 2, 2);
+        final JPanel child = new JPanel();
+        parent.add(child, constraints);
+        constraints.setXStart(50);
+        assertEquals(new Dimension(30, 30), layout.preferredLayoutSize(parent));
+
+        layout.setConstraints(child, constraints);
+        assertEquals(new Dimension(520, 30), layout.preferredLayoutSize(parent));
+        assertEquals(50, layout.getConstraints(child).getXStart());
+        assertNull(layout.getConstraints(new JPanel()));
+    }
+
+    @Test
+    public void componentsAtUsesIndexAndLastLayout() {
+        final CellLayout layout = new CellLayout(10, 10);
+        final JPanel parent = new JPanel(layout);
+
+        final JPanel left = new JPanel();
+        final JPanel spanning = new JPanel();
+        final JPanel half = new JPanel();
+        parent.add(left, new Constraints(0, 0, 3, 3));
+        parent.add(spanning, new Constraints(2, 2, 40, 1));
+        parent.add(half, new Constraints(0.5f, 0f, 0.5f, 1f));
+
+        parent.setSize(400, 100);
+        layout.layoutContainer(parent);
+
+        assertEquals(Set.of(left, spanning), Set.copyOf(layout.componentsAt(2, 2)));
+        assertEquals(List.of(left), layout.componentsAt(0, 0));
+        assertEquals(Set.of(spanning, half), Set.copyOf(layout.componentsAt(35, 2)));
+        assertEquals(List.of(half), layout.componentsAt(20, 9));
+        assertTrue(layout.componentsAt(10, 9).isEmpty());
+
+        parent.remove(spanning);
+        final List<Component> afterRemove = layout.componentsAt(35, 2);
+        assertEquals(List.of(half), afterRemove);
+    }
+
+    @Test
+    public void layoutOnlyPlacesDirtyComponents() {
+        final CellLayout layout = new CellLayout(10, 10);
+        final JPanel parent = new JPanel(layout);
+
+        final JPanel fixed = new JPanel();
+        final JPanel moved = new JPanel();
+        final JPanel half = new JPanel();
+        parent.add(fixed, new Constraints(0, 0, 2, 2));
+        parent.add(moved, new Constraints(4, 0, 2, 2));
+        parent.add(half, new Constraints(0f, 0.5f, 1f, 0.5f));
+        parent.setSize(200, 200);
+
+        layout.layoutContainer(parent);
+        assertEquals(0, layout.getSkippedLastPass());
+        assertEquals(new Rectangle(0, 100, 200, 100), half.getBounds());
+
+        layout.layoutContainer(parent);
+        assertEquals(3, layout.getSkippedLastPass());
+
+        layout.setConstraints(moved, new Constraints(6, 1, 2, 2));
+        layout.layoutContainer(parent);
+        assertEquals(2, layout.getSkippedLastPass());
+        assertEquals(new Rectangle(60, 10, 20, 20), moved.getBounds());
+
+        parent.setSize(400, 200);
+        layout.layoutContainer(parent);
+        assertEquals(2, layout.getSkippedLastPass());
+        assertEquals(new Rectangle(0, 100, 400, 100), half.getBounds());
+
+        // Less than a cell wider, nothing can move.
+        parent.setSize(405, 200);
+        layout.layoutContainer(parent);
+        assertEquals(3, layout.getSkippedLastPass());
+
+        layout.setCellSize(new Dimension(5, 5));
+        layout.layoutContainer(parent);
+        assertEquals(0, layout.getSkippedLastPass());
+        assertEquals(new Rectangle(0, 0, 10, 10), fixed.getBounds());
+        assertEquals(3 + 2 + 2 + 3, layout.getSkippedTotal());
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import org.example.Grid.Locatable;
+import org.example.Grid.Rect;
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChunkedGridTest {
+
+    @Test
+    public void chunksAreAllocatedOnWrite() {
+        final ChunkedIntGrid grid = new ChunkedIntGrid(2);
+        assertEquals(0, grid.getInt(100, 100));
+        assertEquals(0, grid.chunkCount());
+
+        grid.setInt(-1, -1, 7);
+        grid.setInt(5, 2, 9);
+        grid.setInt(6, 3, 11);
+
+        assertEquals(2, grid.chunkCount());
+        assertEquals(32, grid.size());
+        assertEquals(7, grid.getInt(-1, -1));
+        assertEquals(0, grid.getInt(-2, -3));
+        assertTrue(grid.exists(-4, -4));
+        assertFalse(grid.exists(0, 0));
+        assertEquals(new Rect(-4, -4, 12, 8), grid.bounds());
+
+        final Set<V2> visited = new HashSet<>();
+        long sum = 0;
+        for (Locatable<Integer> cell : grid.locatableIterable()) {
+            assertEquals(grid.getInt(cell.location().x(), cell.location().y()), cell.get());
+            visited.add(cell.location());
+            sum += cell.get();
+        }
+        assertEquals(32, visited.size());
+        assertEquals(27, sum);
+    }
+
+    @Test
+    public void patternsStopAtAbsentChunks() {
+        final ChunkedGrid<String> grid = new ChunkedGrid<>(2);
+        grid.set(0, 0, "a");
+        grid.set(3, 0, "b");
+
+        assertEquals(List.of("a", "b"), grid.stream(new V2(0, 0), Grid.EAST).filter(s -> s != null).toList());
+        assertEquals(4, grid.stream(new V2(0, 0), Grid.EAST).count());
+        assertNull(grid.get(4, 0));
+    }
+
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import org.example.ConnectedComponents.Connectivity;
+import org.example.ConnectedComponents.Equivalence;
+import org.example.ConnectedComponents.Labels;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConnectedComponentsTest {
+
+    private static final Equivalence<Object> EQUAL = Objects::equals;
+
+
+
+    @Test
+    public void smallIslands() {
+        final IntGrid grid = IntGrid.copyOf(List.of(
+                List.of(1, 1, 0, 0),
+                List.of(0, 1, 0, 1),
+                List.of(1, 0, 0, 1)
+        ));
+
+        final Labels four = ConnectedComponents.label(grid, Connectivity.FOUR, EQUAL);
+        // Ones top left, zeros, the lone zero at (0, 1), ones right, the lone one bottom left.
+        assertEquals(5, four.count());
+        assertEquals(1, four.labels().getInt(1, 1));
+        assertEquals(2, four.labels().getInt(1, 2));
+        assertEquals(3, four.labels().getInt(0, 1));
+        assertEquals(4, four.labels().getInt(3, 2));
+        assertEquals(5, four.labels().getInt(0, 2));
+
+        // Diagonals join the bottom left one to the top left group, and the lone zero at (0, 1) to the rest.
+        final Labels eight = ConnectedComponents.label(grid, Connectivity.EIGHT, EQUAL);
+        assertEquals(3, eight.count());
+        assertEquals(1, eight.labels().getInt(0, 2));
+        assertEquals(2, eight.labels().getInt(0, 1));
+        assertEquals(3, eight.labels().getInt(3, 1));
+    }
+
+    @Test
+    public void parallelMatchesSequentialFloodLabelling() {
+        final Random random = new Random(5);
+        final IntGrid grid = IntGrid.of(300, 700);
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                grid.setInt(x, y, random.nextInt(3));
+            }
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Connectivity connectivity : Connectivity.values()) {
+                final Labels labels = ConnectedComponents.label(grid, connectivity, EQUAL, pool);
+                final IntGrid expected = IntGrid.of(grid.width(), grid.height());
+                final int expectedCount = labelSequentially(grid, connectivity, expected);
+
+                assertEquals(expectedCount, labels.count(), connectivity.name());
+                for (int y = 0; y < grid.height(); y++) {
+                    for (int x = 0; x < grid.width(); x++) {
+                        assertEquals(expected.getInt(x, y), labels.labels().getInt(x, y), x + ", " + y);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void missingCellsAreUnlabelled() {
+        final SparseGrid<String> grid = new SparseGrid<>();
+        grid.set(-2, 0, "a");
+        grid.set(-1, 0, "a");
+        grid.set(1, 0, "a");
+
+        final Labels labels = ConnectedComponents.label(grid, Connectivity.FOUR, EQUAL);
+        assertEquals(2, labels.count());
+        assertEquals(4, labels.labels().width());
+        assertEquals(1, labels.labels().getInt(1, 0));
+        assertEquals(0, labels.labels().getInt(2, 0));
+        assertEquals(2, labels.labels().getInt(3, 0));
+    }
+
+    @Test
+    public void floodFill() {
+        final IntGrid grid = IntGrid.copyOf(List.of(
+                List.of(0, 0, 1, 0),
+                List.of(1, 0, 1, 0),
+                List.of(0, 1, 0, 0)
+        ));
+
+        assertEquals(3, ConnectedComponents.floodFill(grid, 0, 0, 7, Connectivity.FOUR, EQUAL));
+        assertEquals(7, grid.getInt(1, 1));
+        assertEquals(0, grid.getInt(3, 0));
+
+        // The zeros down the right, not the one at (0, 2) which is only reachable through other values.
+        assertEquals(4, ConnectedComponents.floodFill(grid, 2, 2, 9, Connectivity.EIGHT, EQUAL));
+        assertEquals(9, grid.getInt(3, 0));
+        assertEquals(0, grid.getInt(0, 2));
+    }
+
+
+
+    /**
+     * Plain breadth first labelling, numbering components in the order their first cell is met.
+     */
+    private static int labelSequentially(IntGrid grid, Connectivity connectivity, IntGrid into) {
+        final Stencil stencil = connectivity.stencil();
+        final Deque<int[]> queue = new ArrayDeque<>();
+        int count = 0;
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                if (into.getInt(x, y) != 0) continue;
+                final int label = ++count;
+                into.setInt(x, y, label);
+                queue.add(new int[] {x, y});
+                while (!queue.isEmpty()) {
+                    final int[] cell = queue.poll();
+                    grid.forEachNeighbourInt(cell[0], cell[1], stencil, (nx, ny, value) -> {
+                        if (into.getInt(nx, ny) != 0 || value != grid.getInt(cell[0], cell[1])) return;
+                        into.setInt(nx, ny, label);
+                        queue.add(new int[] {nx, ny});
+                    });
+                }
+            }
+        }
+        return count;
+    }
+
+}
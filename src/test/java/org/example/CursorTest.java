@@ -0,0 +1,100 @@
+package org.example;
+
+import org.example.Grid.Cursor;
+import org.example.Grid.Sequence;
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CursorTest {
+
+    private static final int SIDE = 1000;
+
+    @Test
+    public void packing() {
+        final long key = Cursor.pack(-3, 7);
+        assertEquals(-3, Cursor.unpackX(key));
+        assertEquals(7, Cursor.unpackY(key));
+        assertEquals(key, new Cursor(-3, 7).key());
+        assertEquals(-1, Cursor.unpackY(Cursor.pack(Integer.MAX_VALUE, -1)));
+    }
+
+    @Test
+    public void cursorAndV2AgreeOnListGrid() {
+        final ListGrid<Integer> grid = ListGrid.immutable(List.of(
+                List.of(1, 2),
+                List.of(),
+                List.of(3, 4, 5)
+        ));
+
+        final List<V2> viaV2 = new ArrayList<>();
+        final Sequence<Integer> byV2 = grid.iterator();
+        while (byV2.hasNextLocation()) viaV2.add(byV2.nextLocation());
+
+        final List<V2> viaCursor = new ArrayList<>();
+        final Sequence<Integer> byCursor = grid.iterator();
+        final Cursor cursor = new Cursor();
+        while (byCursor.nextLocation(cursor)) viaCursor.add(cursor.toV2());
+
+        assertEquals(List.of(new V2(0, 0), new V2(1, 0), new V2(0, 2), new V2(1, 2), new V2(2, 2)), viaV2);
+        assertEquals(viaV2, viaCursor);
+    }
+
+    @Test
+    public void steadyStateTraversalDoesNotAllocate() {
+        final IntGrid intGrid = IntGrid.of(SIDE, SIDE);
+        final ArrayGrid<String> arrayGrid = ArrayGrid.of(SIDE, SIDE);
+
+        // Warm up so the measured run isn't charged for class loading or compilation.
+        for (int i = 0; i < 5; i++) {
+            walk(intGrid);
+            walk(arrayGrid);
+            walkDiagonal(arrayGrid);
+        }
+
+        final long[] sum = new long[1];
+        final long allocated = Allocations.allocatedBy(
+                () -> sum[0] = walk(intGrid) + walk(arrayGrid) + walkDiagonal(arrayGrid)
+        );
+
+        assertEquals(2L * SIDE * SIDE + SIDE, sum[0]);
+        // A handful of iterators and cursors, nowhere near an object per cell.
+        assertTrue(allocated < 64 * 1024, "Allocated " + allocated + " bytes.");
+    }
+
+
+
+    private static long walk(IntGrid grid) {
+        final Sequence<Integer> sequence = grid.iterator();
+        final Cursor cursor = new Cursor();
+        long count = 0;
+        while (sequence.nextLocation(cursor)) {
+            count += 1 + grid.getInt(cursor.x(), cursor.y());
+        }
+        return count;
+    }
+
+    private static long walk(Grid<String> grid) {
+        final Sequence<String> sequence = grid.iterator();
+        long count = 0;
+        while (sequence.hasNext()) {
+            if (sequence.next() == null) count++;
+        }
+        return count;
+    }
+
+    private static long walkDiagonal(Grid<String> grid) {
+        final Sequence<String> sequence = grid.iterator(new V2(0, 0), Grid.SOUTH_EAST);
+        long count = 0;
+        while (sequence.hasNext()) {
+            if (sequence.next() == null) count++;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.example.Grid.Locatable;
+import org.example.Grid.Sequence;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlyweightLocatableTest {
+
+    @Test
+    public void flyweightSeesTheSameCellsAsLocatableIterator() {
+        final SparseGrid<String> sparse = new SparseGrid<>();
+        sparse.set(3, -1, "a");
+        sparse.set(-7, 2, "b");
+        sparse.set(0, 0, "c");
+        final ListGrid<String> jagged = ListGrid.immutable(List.of(List.of("d", "e"), List.of(), List.of("f")));
+
+        for (Grid<String> grid : List.<Grid<String>>of(sparse, jagged)) {
+            final List<String> expected = new ArrayList<>();
+            grid.locatableIterator().forEachRemaining(cell -> expected.add(describe(cell)));
+
+            final Sequence<Locatable<String>> sequence = grid.flyweightLocatableIterator();
+            final Locatable<String> first = sequence.peek().orElseThrow();
+            final List<String> seen = new ArrayList<>();
+            while (sequence.hasNext()) {
+                final Locatable<String> cell = sequence.next();
+                assertSame(first, cell);
+                seen.add(describe(cell));
+            }
+            assertEquals(expected, seen);
+            assertFalse(sequence.peek().isPresent());
+
+            assertEquals(expected, grid.flyweightLocatableStream().map(FlyweightLocatableTest::describe).toList());
+
+            final List<String> visited = new ArrayList<>();
+            grid.forEachCell((x, y, value) -> visited.add(x + "," + y + "=" + value));
+            assertEquals(expected, visited);
+        }
+    }
+
+    @Test
+    public void scansDoNotAllocatePerCell() {
+        final IntGrid grid = IntGrid.of(1000, 1000);
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                // Small enough to come from the Integer cache when boxed.
+                grid.setInt(x, y, (x + y) % 100);
+            }
+        }
+
+        // Warm up so the loops are compiled before measuring.
+        for (int i = 0; i < 10; i++) scan(grid);
+
+        final long[] sum = new long[1];
+        final long allocated = Allocations.allocatedBy(() -> sum[0] = scan(grid));
+
+        assertTrue(sum[0] > 0);
+        assertTrue(allocated < 16 * 1024, "Allocated " + allocated + " bytes.");
+    }
+
+
+
+    private static long scan(IntGrid grid) {
+        final long[] sum = new long[1];
+        grid.forEachInt((x, y, value) -> sum[0] += value);
+        grid.forEachCell((x, y, value) -> sum[0] += x ^ value);
+
+        final Sequence<Locatable<Integer>> sequence = grid.flyweightLocatableIterator();
+        while (sequence.hasNext()) {
+            final Locatable<Integer> cell = sequence.next();
+            sum[0] += cell.y() + cell.get();
+        }
+        return sum[0];
+    }
+
+    private static String describe(Locatable<String> cell) {
+        return cell.x() + "," + cell.y() + "=" + cell.get();
+    }
+
+}
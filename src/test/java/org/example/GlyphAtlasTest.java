@@ -0,0 +1,70 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GlyphAtlasTest {
+
+    @Test
+    public void glyphsAreRasterisedOnce() {
+        final GlyphAtlas atlas = new GlyphAtlas(4);
+        final Font font = new Font(Font.MONOSPACED, Font.PLAIN, 16);
+        final BufferedImage target = new BufferedImage(400, 100, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = target.createGraphics();
+
+        final GlyphAtlas.Page page = atlas.page(g, font, Color.WHITE);
+        final Dimension cellSize = page.cellSize();
+        final String box = "┌─┐│└┘";
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < box.length(); i++) {
+                page.draw(g, box.charAt(i), i * cellSize.width, 0);
+            }
+        }
+        // Enough distinct glyphs to grow the page image past its first row.
+        for (int codePoint = 'A'; codePoint < 'A' + 40; codePoint++) {
+            page.draw(g, codePoint, 0, cellSize.height);
+        }
+        g.dispose();
+
+        assertEquals(box.length() + 40, page.glyphCount());
+        assertSame(page, atlas.page(target.createGraphics(), font, Color.WHITE));
+        assertTrue(hasInk(target, cellSize.width, 0, cellSize.width, cellSize.height), "─ was not drawn");
+    }
+
+    @Test
+    public void leastRecentlyUsedPagesAreEvicted() {
+        final GlyphAtlas atlas = new GlyphAtlas(2);
+        final Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+        final GlyphAtlas.Page small = atlas.page(g, new Font(Font.MONOSPACED, Font.PLAIN, 10), Color.WHITE);
+        atlas.page(g, new Font(Font.MONOSPACED, Font.PLAIN, 11), Color.WHITE);
+        assertSame(small, atlas.page(g, new Font(Font.MONOSPACED, Font.PLAIN, 10), Color.WHITE));
+        atlas.page(g, new Font(Font.MONOSPACED, Font.PLAIN, 12), Color.WHITE);
+
+        assertEquals(2, atlas.pageCount());
+        assertSame(small, atlas.page(g, new Font(Font.MONOSPACED, Font.PLAIN, 10), Color.WHITE));
+        assertNotSame(small, atlas.page(g, new Font(Font.MONOSPACED, Font.PLAIN, 10), Color.RED));
+    }
+
+
+
+    private static boolean hasInk(BufferedImage image, int x, int y, int width, int height) {
+        for (int j = y; j < y + height; j++) {
+            for (int i = x; i < x + width; i++) {
+                if ((image.getRGB(i, j) >>> 24) != 0) return true;
+            }
+        }
+        return false;
+    }
+
+}
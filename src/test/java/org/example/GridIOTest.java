@@ -0,0 +1,107 @@
+package org.example;
+
+import org.example.GridHeader.CellType;
+import org.example.GridHeader.Encoding;
+import org.example.MappedGrid.Mode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GridIOTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(Encoding.class)
+    public void intRoundTrip(Encoding encoding) throws IOException {
+        // Big enough to cross several buffer refills, with few enough values for the dictionary.
+        final IntGrid grid = IntGrid.of(301, 257);
+        for (int i = 0; i < grid.size(); i++) {
+            grid.setInt(i % 301, i / 301, ((i / 1000) % 7) * -123_456);
+        }
+
+        final byte[] bytes = write(grid, encoding);
+        final IntGrid read = GridIO.readIntGrid(Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+        assertEquals(301, read.width());
+        assertEquals(257, read.height());
+        assertArrayEquals(grid.data, read.data);
+        if (encoding != Encoding.RAW) assertTrue(bytes.length < grid.size() * Integer.BYTES);
+    }
+
+    @Test
+    public void longAndByteRoundTrip() throws IOException {
+        final LongGrid longs = LongGrid.of(3, 2);
+        longs.setLong(2, 1, Long.MIN_VALUE);
+        final LongGrid readLongs = GridIO.readLongGrid(channelOf(write(longs, Encoding.RUN_LENGTH)));
+        assertArrayEquals(longs.data, readLongs.data);
+
+        final ByteGrid bytes = ByteGrid.copyOf(List.of(List.of(-1, 2, 3), List.of(4, 5, -128)));
+        final ByteGrid readBytes = GridIO.readByteGrid(channelOf(write(bytes, Encoding.DICTIONARY)));
+        assertArrayEquals(bytes.data, readBytes.data);
+    }
+
+    @Test
+    public void anyNumericGridWithExplicitType() throws IOException {
+        final ListGrid<Integer> jagged = ListGrid.immutable(List.of(
+                List.of(1, 2, 3),
+                List.of(4)
+        ));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GridIO.write(jagged, CellType.INT, Channels.newChannel(out), Encoding.RAW);
+        final IntGrid read = GridIO.readIntGrid(channelOf(out.toByteArray()));
+
+        assertArrayEquals(new int[] {1, 2, 3, 4, 0, 0}, read.data);
+        assertThrows(IllegalArgumentException.class, () -> write(jagged, Encoding.RAW));
+        assertThrows(IOException.class, () -> GridIO.readLongGrid(channelOf(out.toByteArray())));
+    }
+
+    @Test
+    public void rawFilesCanBeMapped() throws IOException {
+        final Path file = directory.resolve("raw.bgrd");
+        final LongGrid grid = LongGrid.of(10, 10);
+        grid.setLong(9, 9, 42);
+        GridIO.write(grid, file, Encoding.RAW);
+
+        try (MappedGrid<Long> mapped = MappedGrid.open(file, Long.class, Mode.READ_ONLY)) {
+            assertEquals(42, mapped.getLong(9, 9));
+        }
+        assertArrayEquals(grid.data, ((LongGrid) GridIO.read(file)).data);
+    }
+
+    @Test
+    public void dictionaryRejectsTooManyValues() {
+        final IntGrid grid = IntGrid.of(300, 1);
+        for (int x = 0; x < 300; x++) grid.setInt(x, 0, x);
+        assertThrows(IllegalArgumentException.class, () -> write(grid, Encoding.DICTIONARY));
+    }
+
+
+
+    private static byte[] write(Grid<? extends Number> grid, Encoding encoding) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GridIO.write(grid, Channels.newChannel(out), encoding);
+        return out.toByteArray();
+    }
+
+    private static java.nio.channels.ReadableByteChannel channelOf(byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+}
@@ -9,7 +9,9 @@ import org.example.Grid.V2;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Slf4j
@@ -47,6 +49,24 @@ public class ListGridInterfaceTest {
                 .forEach(System.out::println);
     }
 
+    @Test
+    public void parallelStreamAll() {
+        final ListGrid<Integer> listGrid = ListGrid.immutable(List.of(
+                List.of(10, 20, 30),
+                List.of(40, 50, 60),
+                List.of(70, 80)
+        ));
+
+        final List<List<Integer>> serial = listGrid.streamAll(Grid.SOUTH_EAST).map(Stream::toList).toList();
+        final List<List<Integer>> parallel = listGrid.parallelStreamAll(Grid.SOUTH_EAST).map(Stream::toList).toList();
+        assertEquals(serial, parallel);
+        assertEquals(8, parallel.size());
+
+        final List<List<Integer>> maximal = listGrid.maximalStreamAll(Grid.SOUTH_EAST).map(Stream::toList).toList();
+        assertEquals(List.of(List.of(10, 50), List.of(20, 60), List.of(30), List.of(40, 80), List.of(70)), maximal);
+        assertEquals(listGrid.size(), maximal.stream().mapToInt(List::size).sum());
+    }
+
     /**
      *   ┌───┬─────┐
      *   │   │     │
@@ -0,0 +1,60 @@
+package org.example;
+
+import org.example.MappedGrid.Mode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MappedGridTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void roundTrip() throws IOException {
+        final Path file = directory.resolve("grid.bgrd");
+
+        try (MappedGrid<Integer> grid = MappedGrid.create(file, Integer.class, 300, 200)) {
+            for (int y = 0; y < 200; y++) {
+                for (int x = 0; x < 300; x++) {
+                    grid.setInt(x, y, x * y);
+                }
+            }
+            grid.set(299, 199, -5);
+        }
+        assertEquals(GridHeader.SIZE + (300L * 200 * 4), Files.size(file));
+
+        try (MappedGrid<Integer> grid = MappedGrid.open(file, Integer.class, Mode.READ_ONLY)) {
+            assertEquals(7 * 11, grid.getInt(7, 11));
+            assertEquals(-5, grid.get(299, 199));
+            assertEquals(300 * 200, grid.size());
+
+            long expected = -5 - (299L * 199);
+            for (int y = 0; y < 200; y++) {
+                for (int x = 0; x < 300; x++) expected += (long) x * y;
+            }
+            assertEquals(expected, grid.parallelStream().mapToLong(Integer::longValue).sum());
+            assertEquals(expected, grid.stream().mapToLong(Integer::longValue).sum());
+
+            assertThrows(UnsupportedOperationException.class, () -> grid.setInt(0, 0, 1));
+            assertThrows(IllegalStateException.class, () -> grid.getLong(0, 0));
+        }
+    }
+
+    @Test
+    public void rejectsMismatchedType() throws IOException {
+        final Path file = directory.resolve("bytes.bgrd");
+        MappedGrid.create(file, Byte.class, 4, 4).close();
+
+        assertThrows(IOException.class, () -> MappedGrid.open(file, Long.class, Mode.READ_ONLY));
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> MappedGrid.open(file, Byte.class, Mode.READ_ONLY));
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import org.example.Grid.Rect;
+import org.example.ObservableGrid.Change;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ObservableGridTest {
+
+    @Test
+    public void changedSinceReportsDirtyTiles() {
+        final ObservableGrid<Integer> grid = new ObservableGrid<>(IntGrid.of(100, 50));
+        assertEquals(0, grid.version());
+
+        grid.set(3, 3, 1);
+        grid.set(20, 3, 1);
+        final long afterRow = grid.version();
+        grid.set(70, 40, 1);
+        // Same value, not a change.
+        grid.set(70, 40, 1);
+
+        assertEquals(3, grid.version());
+        assertEquals(List.of(new Rect(0, 0, 32, 16), new Rect(64, 32, 16, 16)), grid.changedSince(0));
+        assertEquals(List.of(new Rect(64, 32, 16, 16)), grid.changedSince(afterRow));
+        assertTrue(grid.changedSince(grid.version()).isEmpty());
+        assertEquals(1, grid.source().get(70, 40));
+    }
+
+    @Test
+    public void listenersHearBatchesOnce() {
+        final ObservableGrid<Integer> grid = new ObservableGrid<>(IntGrid.of(64, 64));
+        final List<Change> changes = new ArrayList<>();
+        grid.addChangeListener((changed, change) -> changes.add(change));
+
+        grid.set(0, 0, 5);
+        grid.batch(() -> {
+            for (int i = 0; i < 64; i++) grid.set(i, 63, 7);
+            grid.batch(() -> grid.set(0, 0, 6));
+        });
+        grid.batch(() -> grid.set(0, 0, 6));
+
+        assertEquals(2, changes.size());
+        assertEquals(new Change(0, 1, List.of(new Rect(0, 0, 16, 16))), changes.get(0));
+        assertEquals(1, changes.get(1).fromVersion());
+        assertEquals(66, changes.get(1).toVersion());
+        assertEquals(List.of(new Rect(0, 0, 16, 16), new Rect(0, 48, 64, 16)), changes.get(1).tiles());
+    }
+
+    @Test
+    public void tilesGrowWithSparseGrids() {
+        final ObservableGrid<String> grid = new ObservableGrid<>(new SparseGrid<>());
+        grid.set(5, 5, "a");
+        grid.set(-40, 100, "b");
+        final long before = grid.version();
+        grid.set(1000, -1000, "c");
+        grid.set(5, 5, null);
+
+        assertEquals(List.of(new Rect(992, -1008, 16, 16), new Rect(0, 0, 16, 16)), grid.changedSince(before));
+        assertEquals(3, grid.changedSince(0).size());
+        assertEquals(2, grid.size());
+    }
+
+    @Test
+    public void farApartWritesOnlyTrackTheirTiles() {
+        final ObservableGrid<String> grid = new ObservableGrid<>(new SparseGrid<>());
+        grid.set(0, 0, "a");
+        grid.set(1 << 30, 1 << 30, "b");
+        grid.set(-(1 << 30), 1 << 30, "c");
+
+        // Clearing a cell that was never set isn't a change.
+        final long before = grid.version();
+        grid.set(-5, 7, null);
+        assertEquals(before, grid.version());
+
+        assertEquals(List.of(
+                new Rect(0, 0, 16, 16), new Rect(-(1 << 30), 1 << 30, 16, 16), new Rect(1 << 30, 1 << 30, 16, 16)
+        ), grid.changedSince(0));
+    }
+
+    @Test
+    public void listGridIsMutable() {
+        final ListGrid<String> grid = ListGrid.noCopy(List.of(new ArrayList<>(List.of("a", "b"))));
+        final ObservableGrid<String> observable = new ObservableGrid<>(grid);
+        observable.set(1, 0, "c");
+        assertEquals("c", grid.get(1, 0));
+    }
+
+}
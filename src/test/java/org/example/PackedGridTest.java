@@ -0,0 +1,157 @@
+package org.example;
+
+import org.example.PackedGrid.Op;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PackedGridTest {
+
+    private static final int[] BIT_WIDTHS = {1, 2, 4, 8};
+
+
+
+    @Test
+    public void cellsReadBackWhatWasWritten() {
+        final Random random = new Random(21);
+        for (int bits : BIT_WIDTHS) {
+            final PackedGrid packed = PackedGrid.of(77, 13, bits);
+            final IntGrid reference = IntGrid.of(77, 13);
+            for (int i = 0; i < 5000; i++) {
+                final int x = random.nextInt(77);
+                final int y = random.nextInt(13);
+                final int value = random.nextInt(1 << bits);
+                packed.setBits(x, y, value);
+                reference.setInt(x, y, value);
+            }
+
+            assertEquals(reference.stream().toList(), packed.stream().toList(), "Bits " + bits);
+            assertEquals(reference.stream().mapToLong(Integer::bitCount).sum(), packed.popCount());
+            assertEquals(reference.stream().toList(), PackedGrid.copyOf(reference, bits).stream().toList());
+        }
+    }
+
+    @Test
+    public void bulkOperationsMatchCellByCell() {
+        final Random random = new Random(7);
+        for (int bits : BIT_WIDTHS) {
+            for (Op op : Op.values()) {
+                final PackedGrid left = randomGrid(random, 130, 9, bits);
+                final PackedGrid right = randomGrid(random, 130, 9, bits);
+                final int[][] expected = cells(left);
+
+                // Regions that start and end mid word, span many words, or sit inside a single word.
+                final int[][] regions = {{3, 1, 120, 5}, {0, 0, 130, 9}, {65, 2, 3, 4}, {129, 8, 1, 1}, {5, 5, 0, 3}};
+                for (int[] region : regions) {
+                    left.apply(op, right, region[0], region[1], region[2], region[3]);
+                    for (int y = region[1]; y < region[1] + region[3]; y++) {
+                        for (int x = region[0]; x < region[0] + region[2]; x++) {
+                            expected[y][x] = (int) op.combine(expected[y][x], right.getBits(x, y)) & ((1 << bits) - 1);
+                        }
+                    }
+                    assertCells(expected, left, bits + " bits " + op);
+                }
+
+                left.apply(op, right);
+                for (int y = 0; y < 9; y++) {
+                    for (int x = 0; x < 130; x++) {
+                        expected[y][x] = (int) op.combine(expected[y][x], right.getBits(x, y)) & ((1 << bits) - 1);
+                    }
+                }
+                assertCells(expected, left, bits + " bits whole grid " + op);
+            }
+        }
+    }
+
+    @Test
+    public void regionFillAndPopCount() {
+        for (int bits : BIT_WIDTHS) {
+            final PackedGrid grid = PackedGrid.of(100, 6, bits);
+            final int value = (1 << bits) - 1;
+            grid.fill(30, 2, 41, 3, value);
+
+            long ones = 0;
+            for (int y = 0; y < 6; y++) {
+                for (int x = 0; x < 100; x++) {
+                    final boolean inside = x >= 30 && x < 71 && y >= 2 && y < 5;
+                    assertEquals(inside ? value : 0, grid.getBits(x, y));
+                    if (inside) ones += bits;
+                }
+            }
+            assertEquals(ones, grid.popCount());
+            assertEquals(ones, grid.popCount(30, 2, 41, 3));
+            assertEquals(bits * 2L, grid.popCount(69, 0, 10, 3));
+
+            grid.fill(0);
+            assertEquals(0, grid.popCount());
+        }
+    }
+
+    @Test
+    public void rejectsValuesAndRegionsThatDontFit() {
+        final PackedGrid grid = PackedGrid.of(10, 10, 2);
+        assertThrows(IllegalArgumentException.class, () -> grid.setBits(0, 0, 4));
+        assertThrows(IllegalArgumentException.class, () -> grid.setBits(0, 0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.getBits(10, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.popCount(5, 5, 6, 1));
+        assertThrows(IllegalArgumentException.class, () -> grid.apply(Op.OR, PackedGrid.of(10, 10, 4)));
+        assertThrows(IllegalArgumentException.class, () -> PackedGrid.of(10, 10, 3));
+
+        final SparseGrid<Integer> negative = new SparseGrid<>();
+        negative.set(-1, 4, 1);
+        negative.set(3, 3, 2);
+        assertThrows(IllegalArgumentException.class, () -> PackedGrid.copyOf(negative, 2));
+    }
+
+    @Test
+    public void settingNullStoresZero() {
+        final PackedGrid grid = PackedGrid.of(4, 4, 4);
+        grid.set(2, 1, 9);
+        grid.set(2, 1, null);
+        assertEquals(0, grid.getBits(2, 1));
+    }
+
+    @Test
+    public void sizeIsCappedForHugeBitmaps() {
+        // Just past Integer.MAX_VALUE cells, in 256 MB.
+        final PackedGrid grid = PackedGrid.of(65536, 32769, 1);
+        assertEquals((1L << 31) + 65536, grid.cellCount());
+        assertEquals(Integer.MAX_VALUE, grid.size());
+        assertFalse(grid.isEmpty());
+    }
+
+
+
+    private static PackedGrid randomGrid(Random random, int width, int height, int bits) {
+        final PackedGrid grid = PackedGrid.of(width, height, bits);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.setBits(x, y, random.nextInt(1 << bits));
+            }
+        }
+        return grid;
+    }
+
+    private static int[][] cells(PackedGrid grid) {
+        final int[][] cells = new int[grid.height()][grid.width()];
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                cells[y][x] = grid.getBits(x, y);
+            }
+        }
+        return cells;
+    }
+
+    private static void assertCells(int[][] expected, PackedGrid grid, String message) {
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                assertEquals(expected[y][x], grid.getBits(x, y), message + " at " + x + ", " + y);
+            }
+        }
+    }
+
+}
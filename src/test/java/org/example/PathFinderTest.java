@@ -0,0 +1,187 @@
+package org.example;
+
+import org.example.Grid.V2;
+import org.example.PathFinder.MoveCost;
+import org.example.PathFinder.SearchContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static org.example.Maze.EAST;
+import static org.example.Maze.NORTH;
+import static org.example.Maze.SOUTH;
+import static org.example.Maze.WEST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PathFinderTest {
+
+    @Test
+    public void solvesTheListGridMaze() {
+        // Same maze as ListGridInterfaceTest.maze.
+        final int n = NORTH;
+        final int e = EAST;
+        final int s = SOUTH;
+        final int w = WEST;
+        final List<List<Integer>> cells = List.of(
+                List.of(e, s + w, e + s, e + w, w),
+                List.of(e + s, n + e + s + w, n + e + s + w, e + w, s + w),
+                List.of(n, n + s, n + e, s + w, n + s),
+                List.of(e + s, n + e + s + w, w, n + e, n + s + w),
+                List.of(n, n + e, w, e, n + w)
+        );
+        final PathFinder finder = new PathFinder(Maze.of(ListGrid.noCopy(cells)));
+        final SearchContext context = finder.newContext();
+
+        assertEquals(8, finder.breadthFirst(context, 0, 0, 4, 4));
+        assertEquals(9, context.pathLength());
+        assertEquals(new V2(0, 0), context.path().get(0));
+        assertEquals(new V2(4, 4), context.path().get(8));
+        assertValidPath(finder.maze(), context);
+
+        assertEquals(8, finder.jumpPoint(context, 0, 0, 4, 4));
+        assertValidPath(finder.maze(), context);
+        assertEquals(0, finder.aStar(context, 2, 2, 2, 2, MoveCost.UNIFORM));
+        assertEquals(1, context.pathLength());
+    }
+
+    @Test
+    public void everySearchAgreesOnRandomMazes() {
+        final Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            final Maze maze = randomMaze(random, 20 + random.nextInt(60), 20 + random.nextInt(60));
+            final PathFinder finder = new PathFinder(maze);
+            final SearchContext context = finder.newContext();
+            final MoveCost weighted = (fromX, fromY, toX, toY) -> 1 + ((toX * 31 + toY * 17) % 5);
+
+            for (int query = 0; query < 20; query++) {
+                final int fromX = random.nextInt(maze.width());
+                final int fromY = random.nextInt(maze.height());
+                final int toX = random.nextInt(maze.width());
+                final int toY = random.nextInt(maze.height());
+
+                final int steps = finder.breadthFirst(context, fromX, fromY, toX, toY);
+                assertTrue(steps >= 0);
+                assertEquals(steps + 1, context.pathLength());
+
+                assertEquals(steps, finder.dijkstra(context, fromX, fromY, toX, toY, MoveCost.UNIFORM));
+                assertEquals(steps, finder.aStar(context, fromX, fromY, toX, toY, MoveCost.UNIFORM));
+                assertEquals(steps, finder.jumpPoint(context, fromX, fromY, toX, toY));
+                assertEquals(steps + 1, context.pathLength());
+                assertValidPath(maze, context);
+
+                final int cheapest = finder.dijkstra(context, fromX, fromY, toX, toY, weighted);
+                assertEquals(cheapest, finder.aStar(context, fromX, fromY, toX, toY, weighted));
+                assertValidPath(maze, context);
+            }
+        }
+    }
+
+    @Test
+    public void unreachableTargets() {
+        // Two cells with no passage between them.
+        final PathFinder finder = new PathFinder(Maze.of(IntGrid.of(2, 1)));
+        final SearchContext context = finder.newContext();
+        assertEquals(-1, finder.breadthFirst(context, 0, 0, 1, 0));
+        assertEquals(-1, finder.jumpPoint(context, 0, 0, 1, 0));
+        assertEquals(-1, finder.aStar(context, 0, 0, 1, 0, MoveCost.UNIFORM));
+        assertEquals(0, context.pathLength());
+    }
+
+    @Test
+    public void mazesRejectGridsWithNegativeCoordinates() {
+        final SparseGrid<Integer> grid = new SparseGrid<>();
+        grid.set(0, -1, EAST);
+        grid.set(1, 0, WEST);
+        assertThrows(IllegalArgumentException.class, () -> Maze.of(grid));
+    }
+
+    @Test
+    public void repeatedQueriesDoNotAllocate() {
+        final Random random = new Random(3);
+        final Maze maze = randomMaze(random, 200, 200);
+        final PathFinder finder = new PathFinder(maze);
+        final SearchContext context = finder.newContext();
+
+        // Warm up, which also grows the heap to its working size.
+        for (int i = 0; i < 20; i++) runQueries(finder, context);
+
+        final long allocated = Allocations.allocatedBy(() -> runQueries(finder, context));
+
+        assertTrue(allocated < 16 * 1024, "Allocated " + allocated + " bytes.");
+    }
+
+
+
+    private static long runQueries(PathFinder finder, SearchContext context) {
+        final int last = finder.maze().width() - 1;
+        return finder.breadthFirst(context, 0, 0, last, last)
+                + finder.aStar(context, last, 0, 0, last, MoveCost.UNIFORM)
+                + finder.jumpPoint(context, 0, last, last, 0);
+    }
+
+    private static void assertValidPath(Maze maze, SearchContext context) {
+        for (int step = 1; step < context.pathLength(); step++) {
+            final int x = context.pathX(step - 1);
+            final int y = context.pathY(step - 1);
+            final int dx = context.pathX(step) - x;
+            final int dy = context.pathY(step) - y;
+            final int side = (dx == 1) ? EAST : (dx == -1) ? WEST : (dy == 1) ? SOUTH : NORTH;
+            assertEquals(1, Math.abs(dx) + Math.abs(dy), "Path jumps at step " + step);
+            assertTrue(maze.canMove(x, y, side), "Path goes through a wall at step " + step);
+        }
+    }
+
+    /**
+     * Recursive backtracker, then a few extra passages knocked through so there is more than one route.
+     */
+    private static Maze randomMaze(Random random, int width, int height) {
+        final IntGrid cells = IntGrid.of(width, height);
+        final boolean[] visited = new boolean[width * height];
+        final Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(0);
+        visited[0] = true;
+
+        final int[] sides = {NORTH, EAST, SOUTH, WEST};
+        while (!stack.isEmpty()) {
+            final int current = stack.peek();
+            final int x = current % width;
+            final int y = current / width;
+
+            final int start = random.nextInt(4);
+            boolean moved = false;
+            for (int i = 0; i < 4 && !moved; i++) {
+                final int side = sides[(start + i) % 4];
+                final int nextX = x + Maze.dx(side);
+                final int nextY = y + Maze.dy(side);
+                if (nextX < 0 || nextY < 0 || nextX >= width || nextY >= height) continue;
+                if (visited[nextY * width + nextX]) continue;
+
+                open(cells, x, y, side);
+                visited[nextY * width + nextX] = true;
+                stack.push(nextY * width + nextX);
+                moved = true;
+            }
+            if (!moved) stack.pop();
+        }
+
+        for (int i = 0; i < (width * height) / 10; i++) {
+            final int x = 1 + random.nextInt(width - 2);
+            final int y = 1 + random.nextInt(height - 2);
+            open(cells, x, y, sides[random.nextInt(4)]);
+        }
+        return Maze.of(cells);
+    }
+
+    private static void open(IntGrid cells, int x, int y, int side) {
+        cells.setInt(x, y, cells.getInt(x, y) | side);
+        final int nextX = x + Maze.dx(side);
+        final int nextY = y + Maze.dy(side);
+        cells.setInt(nextX, nextY, cells.getInt(nextX, nextY) | Maze.opposite(side));
+    }
+
+}
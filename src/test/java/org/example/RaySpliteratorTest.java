@@ -0,0 +1,128 @@
+package org.example;
+
+import org.example.Grid.CardanlPattern;
+import org.example.Grid.Cursor;
+import org.example.Grid.IncrementingPattern;
+import org.example.Grid.LinearPattern;
+import org.example.Grid.Locatable;
+import org.example.Grid.Sequence;
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RaySpliteratorTest {
+
+    private static final List<LinearPattern> RAYS = List.of(
+            CardanlPattern.NORTH, CardanlPattern.SOUTH, CardanlPattern.EAST, CardanlPattern.WEST,
+            CardanlPattern.NORTH_EAST, CardanlPattern.SOUTH_WEST,
+            new IncrementingPattern(2, -1), new IncrementingPattern(-3, 2)
+    );
+
+
+
+    @Test
+    public void clippedRaysMatchCheckingEveryStep() {
+        final IntGrid ints = IntGrid.of(9, 7);
+        for (int y = 0; y < ints.height(); y++) {
+            for (int x = 0; x < ints.width(); x++) {
+                ints.setInt(x, y, y * 10 + x);
+            }
+        }
+        final ListGrid<Integer> jagged = ListGrid.noCopy(List.of(
+                new ArrayList<>(List.of(1, 2, 3, 4, 5)),
+                new ArrayList<>(List.of(6, 7)),
+                new ArrayList<>(),
+                new ArrayList<>(List.of(8, 9, 10, 11, 12, 13, 14)),
+                new ArrayList<>(List.of(15, 16, 17))
+        ));
+        final SparseGrid<Integer> sparse = new SparseGrid<>();
+        for (int i = 0; i < 6; i++) sparse.set(i, i, i);
+        sparse.set(8, 8, 8);
+
+        final List<Grid<Integer>> grids = List.of(
+                ints, jagged, sparse, ints.region(2, 1, 5, 5), jagged.region(1, 0, 4, 4),
+                new ObservableGrid<>(ints)
+        );
+        for (Grid<Integer> grid : grids) {
+            for (LinearPattern ray : RAYS) {
+                for (int y = -1; y <= 9; y++) {
+                    for (int x = -1; x <= 9; x++) {
+                        final String message = grid.getClass().getSimpleName() + " " + ray + " from " + x + ", " + y;
+                        final List<V2> expected = walk(grid, x, y, ray);
+                        final int length = grid.rayLength(x, y, ray.xIncrement(), ray.yIncrement());
+                        assertEquals(expected.size(), length, message);
+
+                        final V2 start = new V2(x, y);
+                        assertEquals(values(grid, expected), grid.stream(start, ray).toList(), message);
+                        assertEquals(expected, grid.locatableStream(start, ray).map(Locatable::location).toList());
+
+                        final Sequence<Integer> sequence = grid.iterator(start, ray);
+                        final Cursor cursor = new Cursor();
+                        for (V2 location : expected) {
+                            assertTrue(sequence.peekLocation(cursor), message);
+                            assertEquals(location, cursor.toV2(), message);
+                            assertEquals(grid.get(location), sequence.next(), message);
+                        }
+                        assertFalse(sequence.hasNext(), message);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void raySpliteratorsAreExactlySized() {
+        final IntGrid grid = IntGrid.of(5000, 3);
+        final Spliterator<Integer> suffix = grid.spliterator(new V2(10, 1), CardanlPattern.EAST);
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(4990, suffix.estimateSize());
+
+        final Spliterator<Integer> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(4990, prefix.estimateSize() + suffix.estimateSize());
+
+        grid.setInt(4999, 1, 7);
+        assertEquals(7, grid.stream(new V2(10, 1), CardanlPattern.EAST).collect(Collectors.summingInt(i -> i)));
+    }
+
+    @Test
+    public void zeroStepsNeverEnd() {
+        final IntGrid grid = IntGrid.of(3, 3);
+        assertEquals(Integer.MAX_VALUE, grid.rayLength(1, 1, 0, 0));
+        assertEquals(0, grid.rayLength(3, 1, 0, 0));
+
+        final Sequence<Integer> sequence = grid.iterator(new V2(1, 1), new IncrementingPattern(0, 0));
+        for (int i = 0; i < 10; i++) assertEquals(new V2(1, 1), sequence.nextLocation());
+    }
+
+
+
+    /**
+     * Steps along the ray until a cell doesn't exist, the way the walk worked before rays were clipped.
+     */
+    private static List<V2> walk(Grid<?> grid, int x, int y, LinearPattern ray) {
+        final List<V2> cells = new ArrayList<>();
+        int currentX = x;
+        int currentY = y;
+        while (grid.exists(currentX, currentY)) {
+            cells.add(new V2(currentX, currentY));
+            currentX += ray.xIncrement();
+            currentY += ray.yIncrement();
+        }
+        return cells;
+    }
+
+    private static List<Integer> values(Grid<Integer> grid, List<V2> cells) {
+        return cells.stream().map(grid::get).toList();
+    }
+
+}
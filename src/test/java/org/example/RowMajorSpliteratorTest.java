@@ -0,0 +1,86 @@
+package org.example;
+
+import org.example.Grid.Locatable;
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RowMajorSpliteratorTest {
+
+    @Test
+    public void jaggedGridSplitsEvenlyAndKeepsOrder() {
+        final List<List<Integer>> rows = new ArrayList<>();
+        int counter = 0;
+        for (int y = 0; y < 300; y++) {
+            final int length = (y % 3 == 0) ? 0 : (y * 37) % 101;
+            final List<Integer> row = new ArrayList<>();
+            for (int x = 0; x < length; x++) row.add(counter++);
+            rows.add(row);
+        }
+        final ListGrid<Integer> grid = ListGrid.immutable(rows);
+
+        final Spliterator<Integer> spliterator = grid.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE));
+        assertEquals(counter, spliterator.estimateSize());
+
+        final Spliterator<Integer> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(counter, prefix.estimateSize() + spliterator.estimateSize());
+
+        final List<Integer> serial = new ArrayList<>();
+        grid.iterator().forEachRemaining(serial::add);
+        assertEquals(serial, grid.parallelStream().toList());
+        assertEquals(counter, serial.size());
+
+        final List<Locatable<Integer>> locatables = new ArrayList<>();
+        grid.locatableIterator().forEachRemaining(locatables::add);
+        assertEquals(locatables, grid.locatableStream().parallel().toList());
+    }
+
+    @Test
+    public void regularGridTryAdvanceMatchesIterator() {
+        final IntGrid grid = IntGrid.of(45, 70);
+        for (int i = 0; i < grid.size(); i++) grid.setInt(i % 45, i / 45, i);
+
+        final Spliterator<Integer> spliterator = grid.spliterator();
+        final Spliterator<Integer> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        // 3150 cells, halved and rounded down to a row boundary.
+        assertEquals(45 * 35, prefix.estimateSize());
+
+        final List<Integer> collected = new ArrayList<>();
+        while (prefix.tryAdvance(collected::add)) { }
+        spliterator.forEachRemaining(collected::add);
+
+        final List<Integer> expected = new ArrayList<>();
+        grid.iterator().forEachRemaining(expected::add);
+        assertEquals(expected, collected);
+
+        final long sum = grid.parallelStream().mapToLong(Integer::longValue).sum();
+        assertEquals((long) grid.size() * (grid.size() - 1) / 2, sum);
+    }
+
+    @Test
+    public void locatablesCarryTheirLocation() {
+        final IntGrid grid = IntGrid.of(50, 50);
+        final boolean allMatch = StreamSupport.stream(grid.locatableSpliterator(), true)
+                .allMatch(cell -> grid.getInt(cell.location().x(), cell.location().y()) == cell.get());
+        assertTrue(allMatch);
+
+        final V2 last = grid.locatableStream()
+                .map(Locatable::location)
+                .collect(Collectors.reducing((a, b) -> b))
+                .orElseThrow();
+        assertEquals(new V2(49, 49), last);
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import org.example.Grid.CardanlPattern;
+import org.example.Grid.Cursor;
+import org.example.Grid.Sequence;
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SequenceBatchTest {
+
+    @Test
+    public void batchesMatchOneAtATime() {
+        final IntGrid ints = IntGrid.of(13, 11);
+        for (int i = 0; i < ints.size(); i++) ints.setInt(i % 13, i / 13, i);
+        final ListGrid<Integer> jagged = ListGrid.immutable(List.of(
+                List.of(1, 2, 3), List.of(), List.of(4), List.of(5, 6, 7, 8, 9)
+        ));
+        final SparseGrid<Integer> sparse = new SparseGrid<>();
+        for (int i = 0; i < 30; i++) sparse.set(i * 3 - 40, i % 4, i);
+
+        final List<Supplier<Sequence<Integer>>> sequences = List.of(
+                ints::iterator, jagged::iterator, sparse::iterator,
+                () -> ints.iterator(new V2(12, 0), CardanlPattern.SOUTH_WEST),
+                () -> new ObservableGrid<>(ints).iterator(new V2(0, 4), CardanlPattern.EAST)
+        );
+        for (Supplier<Sequence<Integer>> source : sequences) {
+            final List<Integer> expectedValues = new ArrayList<>();
+            final List<Long> expectedLocations = new ArrayList<>();
+            final Sequence<Integer> single = source.get();
+            final Cursor cursor = new Cursor();
+            while (single.peekLocation(cursor)) {
+                expectedLocations.add(cursor.key());
+                expectedValues.add(single.next());
+            }
+
+            // Take the first cell on its own, so batches don't start at the beginning.
+            final Sequence<Integer> batched = source.get();
+            final List<Integer> values = new ArrayList<>(List.of(batched.next()));
+            final List<Long> locations = new ArrayList<>(List.of(expectedLocations.get(0)));
+            final Integer[] valueBuffer = new Integer[9];
+            final long[] locationBuffer = new long[9];
+            int count;
+            while ((count = batched.nextBatch(valueBuffer, locationBuffer, 2, 7)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    values.add(valueBuffer[2 + i]);
+                    locations.add(locationBuffer[2 + i]);
+                }
+            }
+            assertEquals(expectedValues, values);
+            assertEquals(expectedLocations, locations);
+
+            final Sequence<Integer> locationsOnly = source.get();
+            final List<Long> packed = new ArrayList<>();
+            while ((count = locationsOnly.nextLocations(locationBuffer, 0, 5)) > 0) {
+                for (int i = 0; i < count; i++) packed.add(locationBuffer[i]);
+            }
+            assertEquals(expectedLocations, packed);
+
+            final List<Long> visited = new ArrayList<>();
+            source.get().forEachRemainingCell((x, y, value) -> {
+                assertEquals(expectedValues.get(visited.size()), value);
+                visited.add(Cursor.pack(x, y));
+            });
+            assertEquals(expectedLocations, visited);
+        }
+    }
+
+    @Test
+    public void intGridsBatchWithoutBoxing() {
+        final IntGrid grid = IntGrid.of(5, 4);
+        for (int i = 0; i < grid.size(); i++) grid.setInt(i % 5, i / 5, i * 2);
+
+        final IntGrid.IntSequence sequence = grid.iterator();
+        sequence.tryNext();
+        final int[] values = new int[8];
+        final long[] locations = new long[8];
+        assertEquals(8, sequence.nextPrimitiveBatch(values, locations, 0, 8));
+        assertArrayEquals(new int[] {2, 4, 6, 8, 10, 12, 14, 16}, values);
+        assertEquals(Cursor.pack(0, 1), locations[4]);
+
+        final int[] sum = new int[1];
+        sequence.forEachRemainingInt((x, y, value) -> {
+            assertEquals((y * 5 + x) * 2, value);
+            sum[0] += value;
+        });
+        assertEquals(Arrays.stream(new int[] {18, 20, 22, 24, 26, 28, 30, 32, 34, 36, 38}).sum(), sum[0]);
+        assertEquals(0, sequence.nextPrimitiveBatch(values, null, 0, 8));
+    }
+
+    @Test
+    public void longAndByteGridsVisitWithoutBoxing() {
+        final LongGrid longs = LongGrid.of(4, 3);
+        final ByteGrid bytes = ByteGrid.of(4, 3);
+        for (int i = 0; i < longs.size(); i++) {
+            longs.setLong(i % 4, i / 4, (long) i << 40);
+            bytes.setByte(i % 4, i / 4, (byte) -i);
+        }
+
+        final LongGrid.LongSequence longSequence = longs.iterator();
+        longSequence.tryNext();
+        final List<Long> seenLongs = new ArrayList<>();
+        longSequence.forEachRemainingLong((x, y, value) -> {
+            assertEquals((long) (y * 4 + x) << 40, value);
+            seenLongs.add(value);
+        });
+        assertEquals(11, seenLongs.size());
+
+        final List<Long> seenBytes = new ArrayList<>();
+        bytes.forEachByte((x, y, value) -> {
+            assertEquals((byte) -(y * 4 + x), value);
+            seenBytes.add(Cursor.pack(x, y));
+        });
+        assertEquals(12, seenBytes.size());
+        assertEquals(Cursor.pack(3, 2), seenBytes.get(11));
+    }
+
+}
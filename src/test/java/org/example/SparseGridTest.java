@@ -0,0 +1,78 @@
+package org.example;
+
+import org.example.Grid.Cursor;
+import org.example.Grid.Locatable;
+import org.example.Grid.Rect;
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SparseGridTest {
+
+    @Test
+    public void negativeCoordinatesAndBounds() {
+        final SparseGrid<String> grid = new SparseGrid<>();
+        assertEquals(Rect.EMPTY, grid.bounds());
+
+        grid.set(-1_000_000, 5, "far west");
+        grid.set(3, -7, "north");
+        grid.set(0, 0, "origin");
+
+        assertEquals(3, grid.size());
+        assertTrue(grid.exists(-1_000_000, 5));
+        assertFalse(grid.exists(1, 1));
+        assertNull(grid.get(1, 1));
+        assertEquals(new Rect(-1_000_000, -7, 1_000_004, 13), grid.bounds());
+
+        grid.set(-1_000_000, 5, null);
+        assertEquals(new Rect(0, -7, 4, 8), grid.bounds());
+
+        final Set<V2> visited = new HashSet<>();
+        for (Locatable<String> cell : grid.locatableIterable()) {
+            assertEquals(grid.get(cell.location()), cell.get());
+            visited.add(cell.location());
+        }
+        assertEquals(Set.of(new V2(3, -7), new V2(0, 0)), visited);
+    }
+
+    @Test
+    public void matchesHashMapUnderChurn() {
+        final SparseGrid<Integer> grid = new SparseGrid<>();
+        final Map<V2, Integer> reference = new HashMap<>();
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            final int x = random.nextInt(200) - 100;
+            final int y = random.nextInt(200) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(new V2(x, y)), grid.remove(x, y));
+            } else {
+                grid.set(x, y, i);
+                reference.put(new V2(x, y), i);
+            }
+        }
+
+        assertEquals(reference.size(), grid.size());
+        reference.forEach((position, value) -> assertEquals(value, grid.get(position)));
+
+        int visited = 0;
+        final Grid.Sequence<Integer> sequence = grid.iterator();
+        final Cursor cursor = new Cursor();
+        while (sequence.nextLocation(cursor)) {
+            assertTrue(reference.containsKey(cursor.toV2()));
+            visited++;
+        }
+        assertEquals(reference.size(), visited);
+    }
+
+}
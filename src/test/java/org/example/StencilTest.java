@@ -0,0 +1,161 @@
+package org.example;
+
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StencilTest {
+
+    @Test
+    public void shapes() {
+        assertEquals(8, Stencil.moore().size());
+        assertEquals(4, Stencil.vonNeumann().size());
+        assertEquals(24, Stencil.moore(2).size());
+        assertEquals(12, Stencil.vonNeumann(2).size());
+        assertEquals(3, Stencil.moore(3).radius());
+
+        final Stencil custom = Stencil.of(new V2(2, 0), new V2(0, 0), new V2(-1, 5));
+        assertEquals(5, custom.radius());
+        assertEquals(-1, custom.dx(2));
+        assertEquals(5, custom.dy(2));
+    }
+
+    @Test
+    public void arrayPathMatchesGenericPath() {
+        final int width = 9;
+        final int height = 7;
+        final IntGrid array = IntGrid.of(width, height);
+        final List<List<Integer>> rows = new ArrayList<>();
+        for (int y = 0; y < height; y++) {
+            final List<Integer> row = new ArrayList<>();
+            for (int x = 0; x < width; x++) {
+                array.setInt(x, y, (y * 100) + x);
+                row.add((y * 100) + x);
+            }
+            rows.add(row);
+        }
+        final ListGrid<Integer> list = ListGrid.noCopy(rows);
+
+        for (Stencil stencil : List.of(Stencil.moore(), Stencil.vonNeumann(2), Stencil.of(new V2(3, -1)))) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    final List<Integer> fromArray = new ArrayList<>();
+                    final List<Integer> fromList = new ArrayList<>();
+                    final List<Integer> fromInts = new ArrayList<>();
+                    array.forEachNeighbour(x, y, stencil, (nx, ny, value) -> fromArray.add(value));
+                    list.forEachNeighbour(x, y, stencil, (nx, ny, value) -> fromList.add(value));
+                    array.forEachNeighbourInt(x, y, stencil, (nx, ny, value) -> {
+                        assertEquals((ny * 100) + nx, value);
+                        fromInts.add(value);
+                    });
+                    assertEquals(fromList, fromArray, stencil + " at " + x + ", " + y);
+                    assertEquals(fromList, fromInts, stencil + " at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void neighboursFillsMissingOffTheEdge() {
+        final IntGrid grid = IntGrid.of(3, 3);
+        for (int i = 0; i < 9; i++) grid.setInt(i % 3, i / 3, i + 1);
+
+        final int[] into = new int[8];
+        assertEquals(8, grid.neighbours(1, 1, Stencil.moore(), into, -1));
+        // North, south, east, west, north east, north west, south east, south west.
+        assertArrayEquals(new int[] {2, 8, 6, 4, 3, 1, 9, 7}, into);
+
+        assertEquals(3, grid.neighbours(0, 0, Stencil.moore(), into, -1));
+        assertArrayEquals(new int[] {-1, 4, 2, -1, -1, -1, 5, -1}, into);
+    }
+
+    @Test
+    public void longAndByteGridsReadNeighboursUnboxed() {
+        final LongGrid longs = LongGrid.of(6, 5);
+        final ByteGrid bytes = ByteGrid.of(6, 5);
+        for (int i = 0; i < longs.size(); i++) {
+            longs.setLong(i % 6, i / 6, (long) i << 33);
+            bytes.setByte(i % 6, i / 6, (byte) (i * 9));
+        }
+
+        final long[] longsInto = new long[24];
+        final byte[] bytesInto = new byte[24];
+        for (Stencil stencil : List.of(Stencil.moore(), Stencil.moore(2), Stencil.of(new V2(-4, 1)))) {
+            for (int y = 0; y < 5; y++) {
+                for (int x = 0; x < 6; x++) {
+                    final List<Long> boxedLongs = new ArrayList<>();
+                    final List<Byte> boxedBytes = new ArrayList<>();
+                    longs.forEachNeighbour(x, y, stencil, (nx, ny, value) -> boxedLongs.add(value));
+                    bytes.forEachNeighbour(x, y, stencil, (nx, ny, value) -> boxedBytes.add(value));
+
+                    final List<Long> unboxedLongs = new ArrayList<>();
+                    final List<Byte> unboxedBytes = new ArrayList<>();
+                    longs.forEachNeighbourLong(x, y, stencil, (nx, ny, value) -> unboxedLongs.add(value));
+                    bytes.forEachNeighbourByte(x, y, stencil, (nx, ny, value) -> unboxedBytes.add(value));
+                    assertEquals(boxedLongs, unboxedLongs);
+                    assertEquals(boxedBytes, unboxedBytes);
+
+                    assertEquals(boxedLongs.size(), longs.neighbours(x, y, stencil, longsInto, -1L));
+                    assertEquals(boxedBytes.size(), bytes.neighbours(x, y, stencil, bytesInto, (byte) -1));
+                    for (int i = 0; i < stencil.size(); i++) {
+                        final boolean exists = longs.exists(x + stencil.dx(i), y + stencil.dy(i));
+                        assertEquals(exists ? longs.getLong(x + stencil.dx(i), y + stencil.dy(i)) : -1L, longsInto[i]);
+                        assertEquals(exists ? bytes.getByte(x + stencil.dx(i), y + stencil.dy(i)) : -1, bytesInto[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void alternatingGridWidthsDoNotAllocate() {
+        final IntGrid narrow = IntGrid.of(10, 10);
+        final IntGrid wide = IntGrid.of(37, 10);
+        final int[] into = new int[8];
+
+        // Warm up, which also fills each grid's offset cache.
+        for (int i = 0; i < 10_000; i++) alternate(narrow, wide, into);
+
+        final long allocated = Allocations.allocatedBy(() -> {
+            for (int i = 0; i < 10_000; i++) alternate(narrow, wide, into);
+        });
+        assertTrue(allocated < 16 * 1024, "Allocated " + allocated + " bytes.");
+    }
+
+    @Test
+    public void automatonTakesAStencil() {
+        final IntGrid board = IntGrid.of(5, 5);
+        board.setInt(2, 2, 1);
+        final Automaton.Rule anyNeighbour = (self, neighbours) -> {
+            for (int neighbour : neighbours) {
+                if (neighbour != 0) return 1;
+            }
+            return self;
+        };
+
+        final Automaton automaton = new Automaton(
+                board, anyNeighbour, Automaton.EdgeMode.DEAD, Stencil.vonNeumann(), ForkJoinPool.commonPool()
+        );
+        automaton.step();
+        assertEquals(1, automaton.get(2, 1));
+        assertEquals(0, automaton.get(1, 1));
+        assertEquals(5, automaton.current().stream().mapToInt(Integer::intValue).sum());
+    }
+
+
+
+    private static void alternate(IntGrid narrow, IntGrid wide, int[] into) {
+        narrow.neighbours(5, 5, Stencil.moore(), into, 0);
+        wide.neighbours(5, 5, Stencil.moore(), into, 0);
+        narrow.forEachNeighbourInt(4, 4, Stencil.vonNeumann(), (x, y, value) -> { });
+        wide.forEachNeighbourInt(4, 4, Stencil.vonNeumann(), (x, y, value) -> { });
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.example;
+
+import org.example.Grid.Rect;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SummedAreaTableTest {
+
+    @Test
+    public void smallSums() {
+        final IntGrid grid = IntGrid.copyOf(List.of(
+                List.of(1, 2, 3),
+                List.of(4, 5, 6)
+        ));
+        final SummedAreaTable.OfLong table = SummedAreaTable.ofLongs(grid);
+
+        assertEquals(21, table.total());
+        assertEquals(5, table.sum(1, 1, 1, 1));
+        assertEquals(16, table.sum(1, 0, 2, 2));
+        // Clipped to the grid.
+        assertEquals(9, table.sum(-5, 1, 7, 10));
+        assertEquals(0, table.sum(3, 0, 4, 4));
+        assertEquals(0, table.sum(new Rect(0, 0, 0, 2)));
+    }
+
+    @Test
+    public void parallelBuildMatchesBruteForce() {
+        final Random random = new Random(7);
+        final IntGrid grid = IntGrid.of(500, 300);
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                grid.setInt(x, y, random.nextInt(200) - 100);
+            }
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final SummedAreaTable.OfLong longs = SummedAreaTable.ofLongs(grid, pool);
+            final SummedAreaTable.OfDouble doubles = SummedAreaTable.ofDoubles(grid, value -> value / 4.0, pool);
+            for (int query = 0; query < 200; query++) {
+                final Rect rect = randomRect(random, grid);
+                final long expected = bruteForce(grid, rect);
+                assertEquals(expected, longs.sum(rect), rect.toString());
+                assertEquals(expected / 4.0, doubles.sum(rect), 1e-6, rect.toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void addKeepsTheTableCurrent() {
+        final IntGrid grid = IntGrid.of(20, 20);
+        final SummedAreaTable.OfLong table = SummedAreaTable.ofLongs(grid);
+
+        grid.setInt(5, 6, 3);
+        table.add(5, 6, 3);
+        grid.setInt(0, 19, -1);
+        table.add(0, 19, -1);
+
+        assertEquals(2, table.total());
+        assertEquals(3, table.sum(5, 6, 1, 1));
+        assertEquals(0, table.sum(6, 0, 14, 20));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.add(20, 0, 1));
+    }
+
+    @Test
+    public void rebuildsLazilyFromObservedChanges() {
+        final Random random = new Random(3);
+        final ObservableGrid<Integer> grid = new ObservableGrid<>(IntGrid.of(70, 90));
+        final SummedAreaTable.OfLong table = SummedAreaTable.ofLongs(grid);
+        table.invalidateOnChange(grid);
+
+        for (int round = 0; round < 20; round++) {
+            grid.batch(() -> {
+                for (int i = 0; i < 5; i++) grid.set(random.nextInt(70), random.nextInt(90), random.nextInt(10));
+            });
+            // A change reported both ways, with the rows below it also waiting on the rebuild.
+            final int x = random.nextInt(70);
+            final int y = random.nextInt(90);
+            final int before = grid.get(x, y);
+            grid.source().set(x, y, before + 2);
+            table.add(x, y, 2);
+
+            for (int query = 0; query < 20; query++) {
+                final Rect rect = randomRect(random, grid);
+                assertEquals(bruteForce(grid, rect), table.sum(rect), rect.toString());
+            }
+        }
+    }
+
+    @Test
+    public void sparseGridsGrow() {
+        final SparseGrid<Integer> grid = new SparseGrid<>();
+        grid.set(-3, -2, 4);
+        grid.set(2, 1, 5);
+        final SummedAreaTable.OfLong table = SummedAreaTable.ofLongs(grid);
+        assertEquals(new Rect(-3, -2, 6, 4), table.bounds());
+        assertEquals(4, table.sum(-3, -2, 5, 3));
+
+        grid.set(10, 10, 1);
+        table.invalidate(10, 10);
+        assertEquals(10, table.total());
+        assertEquals(6, table.sum(0, 0, 20, 20));
+    }
+
+
+
+    private static Rect randomRect(Random random, Grid<?> grid) {
+        final Rect bounds = grid.bounds();
+        final int x = random.nextInt(bounds.width() + 10) - 5;
+        final int y = random.nextInt(bounds.height() + 10) - 5;
+        return new Rect(x, y, random.nextInt(bounds.width()), random.nextInt(bounds.height()));
+    }
+
+    private static long bruteForce(Grid<Integer> grid, Rect rect) {
+        long sum = 0;
+        for (int y = rect.y(); y < rect.y() + rect.height(); y++) {
+            for (int x = rect.x(); x < rect.x() + rect.width(); x++) {
+                if (grid.exists(x, y)) sum += grid.get(x, y);
+            }
+        }
+        return sum;
+    }
+
+}
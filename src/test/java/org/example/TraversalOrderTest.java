@@ -0,0 +1,151 @@
+package org.example;
+
+import org.example.Grid.Locatable;
+import org.example.Grid.Rect;
+import org.example.Grid.Sequence;
+import org.example.Grid.V2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TraversalOrderTest {
+
+    private static final List<TraversalOrder> ORDERS = List.of(
+            TraversalOrder.rowMajor(), TraversalOrder.morton(), TraversalOrder.hilbert(), TraversalOrder.tiled(3, 2)
+    );
+
+
+
+    @Test
+    public void everyOrderVisitsEveryCellOnce() {
+        final List<Rect> rects = List.of(
+                new Rect(0, 0, 1, 1), new Rect(0, 0, 7, 5), new Rect(-3, 4, 1, 40),
+                new Rect(10, -20, 33, 17), new Rect(0, 0, 64, 64)
+        );
+        for (TraversalOrder order : ORDERS) {
+            for (Rect rect : rects) {
+                final List<V2> cells = walk(order, rect);
+                assertEquals(rect.area(), cells.size(), rect.toString());
+                assertEquals(rect.area(), new HashSet<>(cells).size(), rect.toString());
+                assertTrue(cells.stream().allMatch(cell -> rect.contains(cell.x(), cell.y())), rect.toString());
+
+                // The pattern walks the same order as the spliterator.
+                assertEquals(order.first(rect).orElseThrow(), cells.get(0));
+                final Grid.Cursor cursor = new Grid.Cursor(cells.get(0));
+                for (int i = 1; i < cells.size(); i++) {
+                    assertTrue(order.pattern(rect).step(cursor));
+                    assertEquals(cells.get(i), cursor.toV2());
+                }
+                assertFalse(order.pattern(rect).step(cursor));
+            }
+        }
+    }
+
+    @Test
+    public void knownOrders() {
+        assertEquals(
+                List.of(new V2(0, 0), new V2(1, 0), new V2(0, 1), new V2(1, 1), new V2(2, 0), new V2(2, 1)),
+                walk(TraversalOrder.morton(), new Rect(0, 0, 3, 2))
+        );
+        assertEquals(
+                List.of(new V2(0, 0), new V2(0, 1), new V2(1, 1), new V2(1, 0)),
+                walk(TraversalOrder.hilbert(), new Rect(0, 0, 2, 2))
+        );
+        assertEquals(
+                List.of(
+                        new V2(0, 0), new V2(1, 0), new V2(0, 1), new V2(1, 1),
+                        new V2(2, 0), new V2(2, 1),
+                        new V2(0, 2), new V2(1, 2), new V2(2, 2)
+                ),
+                walk(TraversalOrder.tiled(2, 2), new Rect(0, 0, 3, 3))
+        );
+    }
+
+    @Test
+    public void hilbertOnlyStepsToNeighbours() {
+        final List<V2> cells = walk(TraversalOrder.hilbert(), new Rect(0, 0, 32, 32));
+        for (int i = 1; i < cells.size(); i++) {
+            final int distance = Math.abs(cells.get(i).x() - cells.get(i - 1).x())
+                    + Math.abs(cells.get(i).y() - cells.get(i - 1).y());
+            assertEquals(1, distance, "Step " + i);
+        }
+    }
+
+    @Test
+    public void splitsAreExactlySizedRunsOfTheOrder() {
+        final Rect rect = new Rect(0, 0, 300, 170);
+        for (TraversalOrder order : ORDERS) {
+            final List<V2> expected = walk(order, rect);
+
+            final Spliterator<V2> suffix = OrderedSpliterator.of(order, rect, V2::new, 0);
+            final Spliterator<V2> prefix = suffix.trySplit();
+            assertNotNull(prefix);
+            assertTrue(suffix.hasCharacteristics(Spliterator.SUBSIZED));
+
+            final long prefixSize = prefix.estimateSize();
+            assertEquals(rect.area(), prefixSize + suffix.estimateSize());
+            final List<V2> joined = new ArrayList<>();
+            prefix.forEachRemaining(joined::add);
+            assertEquals(prefixSize, joined.size());
+            suffix.forEachRemaining(joined::add);
+            assertEquals(expected, joined);
+        }
+    }
+
+    @Test
+    public void gridStreams() {
+        final IntGrid grid = IntGrid.of(90, 70);
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                grid.setInt(x, y, x * y);
+            }
+        }
+        final long expected = grid.stream().mapToLong(Integer::longValue).sum();
+
+        for (TraversalOrder order : ORDERS) {
+            assertEquals(expected, grid.parallelStream(order).mapToLong(Integer::longValue).sum());
+            assertEquals(grid.size(), grid.locatableStream(order)
+                    .filter(cell -> cell.get() == cell.location().x() * cell.location().y())
+                    .count());
+
+            final Sequence<Integer> sequence = grid.iterator(order);
+            long sum = 0;
+            while (sequence.hasNext()) sum += sequence.next();
+            assertEquals(expected, sum);
+        }
+    }
+
+    @Test
+    public void holesAreSkipped() {
+        final SparseGrid<String> grid = new SparseGrid<>();
+        grid.set(0, 0, "a");
+        grid.set(5, 5, "b");
+        grid.set(-2, 3, "c");
+
+        final Spliterator<Locatable<String>> spliterator = grid.locatableSpliterator(TraversalOrder.hilbert());
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+        final Set<String> values = grid.locatableStream(TraversalOrder.morton())
+                .map(Locatable::get)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("a", "b", "c"), values);
+    }
+
+
+
+    private static List<V2> walk(TraversalOrder order, Rect rect) {
+        final List<V2> cells = new ArrayList<>();
+        OrderedSpliterator.of(order, rect, V2::new, 0).forEachRemaining(cells::add);
+        return cells;
+    }
+
+}